@@ -0,0 +1,195 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import org.joda.beans.Bean;
+import org.joda.beans.sample.ImmGuava;
+import org.joda.beans.sample.ImmPerson;
+import org.joda.beans.sample.ImmTreeNode;
+import org.joda.beans.sample.LightImmutable;
+import org.joda.beans.sample.MinimalImmutable;
+import org.joda.collect.grid.DenseGrid;
+import org.joda.collect.grid.ImmutableGrid;
+import org.joda.collect.grid.SparseGrid;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedMultiset;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
+
+/**
+ * The representative beans used by the serialization benchmarks.
+ * <p>
+ * Each bean can be written and read by every format in {@link BenchmarkFormat}.
+ */
+public enum BenchmarkBeans {
+
+    /**
+     * A flat immutable bean of simple values.
+     */
+    FLAT {
+        @Override
+        Bean create() {
+            return SerTestHelper.testSimpleJson();
+        }
+    },
+    /**
+     * A tree of immutable beans, nested several levels deep.
+     */
+    NESTED {
+        @Override
+        Bean create() {
+            return tree("root", 4);
+        }
+    },
+    /**
+     * An immutable bean holding Guava collections, including multimaps and multisets.
+     */
+    GUAVA {
+        @Override
+        Bean create() {
+            ImmutableList.Builder<String> list = ImmutableList.builder();
+            ImmutableMap.Builder<String, String> map = ImmutableMap.builder();
+            ImmutableListMultimap.Builder<String, String> listMultimap = ImmutableListMultimap.builder();
+            ImmutableSetMultimap.Builder<String, String> setMultimap = ImmutableSetMultimap.builder();
+            ImmutableMultiset.Builder<String> multiset = ImmutableMultiset.builder();
+            for (int i = 0; i < 50; i++) {
+                String key = "K" + i;
+                list.add(key);
+                map.put(key, "V" + i);
+                for (int j = 0; j < 4; j++) {
+                    listMultimap.put(key, "V" + j);
+                    setMultimap.put(key, "V" + j);
+                }
+                multiset.addCopies(key, i + 1);
+            }
+            ImmutableList<String> builtList = list.build();
+            ImmutableMap<String, String> builtMap = map.build();
+            ImmutableListMultimap<String, String> builtListMultimap = listMultimap.build();
+            ImmutableSetMultimap<String, String> builtSetMultimap = setMultimap.build();
+            ImmutableMultiset<String> builtMultiset = multiset.build();
+            return ImmGuava.<String>builder()
+                    .list(builtList)
+                    .listInterface(builtList)
+                    .sortedSet(ImmutableSortedSet.copyOf(builtList))
+                    .map(builtMap)
+                    .mapInterface(builtMap)
+                    .sortedMap(ImmutableSortedMap.copyOf(builtMap))
+                    .multimap(builtListMultimap)
+                    .listMultimap(builtListMultimap)
+                    .setMultimap(builtSetMultimap)
+                    .multimapInterface(builtListMultimap)
+                    .multiset(builtMultiset)
+                    .sortedMultiset(ImmutableSortedMultiset.copyOf(builtMultiset))
+                    .build();
+        }
+    },
+    /**
+     * An immutable bean holding Joda-Collect grids and a Guava table.
+     */
+    GRID {
+        @Override
+        Bean create() {
+            DenseGrid<Double> dense = DenseGrid.create(20, 20);
+            SparseGrid<String> sparse = SparseGrid.create(100, 100);
+            ImmutableTable.Builder<String, String, Double> table = ImmutableTable.builder();
+            for (int row = 0; row < 20; row++) {
+                for (int column = 0; column < 20; column++) {
+                    dense.put(row, column, row * 0.5d + column);
+                    table.put("R" + row, "C" + column, row * 2.5d - column);
+                }
+                sparse.put(row * 5, row, "S" + row);
+            }
+            return ImmGridTable.builder()
+                    .denseGrid(ImmutableGrid.copyOf(dense))
+                    .sparseGrid(ImmutableGrid.copyOf(sparse))
+                    .table(table.build())
+                    .build();
+        }
+    },
+    /**
+     * A light bean.
+     */
+    LIGHT {
+        @Override
+        Bean create() {
+            return LightImmutable.meta().builder()
+                    .set("number", 12)
+                    .set("flag", true)
+                    .set("street", "Park Lane")
+                    .set("town", "Smallville")
+                    .set("city", "Nodnol")
+                    .set("owner", owner())
+                    .set("list", ImmutableList.of("A", "B", "C"))
+                    .set("currency", Currency.getInstance("GBP"))
+                    .build();
+        }
+    },
+    /**
+     * A minimal bean.
+     */
+    MINIMAL {
+        @Override
+        Bean create() {
+            return MinimalImmutable.builder()
+                    .number(12)
+                    .flag(true)
+                    .street("Park Lane")
+                    .town("Smallville")
+                    .city("Nodnol")
+                    .owner(owner())
+                    .list(ImmutableList.of("A", "B", "C"))
+                    .currency(Currency.getInstance("GBP"))
+                    .build();
+        }
+    };
+
+    /**
+     * Creates the sample bean.
+     * 
+     * @return the bean, not null
+     */
+    abstract Bean create();
+
+    //-----------------------------------------------------------------------
+    private static ImmTreeNode tree(String name, int depth) {
+        if (depth == 0) {
+            return ImmTreeNode.of(name, null, null, null, ImmutableList.<ImmTreeNode>of());
+        }
+        List<ImmTreeNode> children = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            children.add(tree(name + "." + i, depth - 1));
+        }
+        return ImmTreeNode.of(name, tree(name + ".1", depth - 1), null, null, children);
+    }
+
+    private static ImmPerson owner() {
+        return ImmPerson.builder()
+                .forename("John")
+                .surname("Doggett")
+                .build();
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.bin.JodaBeanBinFormat;
+
+/**
+ * The serialization formats measured by the benchmarks.
+ */
+public enum BenchmarkFormat {
+
+    /**
+     * The binary format.
+     */
+    BIN {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.binWriter().write(bean);
+        }
+
+        @Override
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.binReader().read((byte[]) encoded, type);
+        }
+
+        @Override
+        int payloadSize(Object encoded) {
+            return ((byte[]) encoded).length;
+        }
+    },
+    /**
+     * The indexed binary format.
+     */
+    BIN_INDEXED {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.binWriter(JodaBeanBinFormat.INDEXED).write(bean);
+        }
+
+        @Override
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.binReader().read((byte[]) encoded, type);
+        }
+
+        @Override
+        int payloadSize(Object encoded) {
+            return ((byte[]) encoded).length;
+        }
+    },
+    /**
+     * The JSON format.
+     */
+    JSON {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.jsonWriter().write(bean);
+        }
+
+        @Override
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.jsonReader().read((String) encoded, type);
+        }
+    },
+    /**
+     * The simple JSON format.
+     */
+    SIMPLE_JSON {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.simpleJsonWriter().write(bean);
+        }
+
+        @Override
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.simpleJsonReader().read((String) encoded, type);
+        }
+    },
+    /**
+     * The XML format.
+     */
+    XML {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.xmlWriter().write(bean);
+        }
+
+        @Override
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.xmlReader().read((String) encoded, type);
+        }
+    },
+    /**
+     * The simple map format.
+     * <p>
+     * The payload is a Java object graph, thus has no size in bytes.
+     */
+    SIMPLE_MAP {
+        @Override
+        Object write(JodaBeanSer settings, Bean bean) {
+            return settings.simpleMapWriter().write(bean);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        <T> T read(JodaBeanSer settings, Object encoded, Class<T> type) {
+            return settings.simpleMapReader().read((Map<String, Object>) encoded, type);
+        }
+
+        @Override
+        int payloadSize(Object encoded) {
+            return -1;
+        }
+    };
+
+    /**
+     * Writes the bean.
+     * 
+     * @param settings  the settings, not null
+     * @param bean  the bean to write, not null
+     * @return the encoded form, not null
+     */
+    abstract Object write(JodaBeanSer settings, Bean bean);
+
+    /**
+     * Reads the bean.
+     * 
+     * @param <T>  the bean type
+     * @param settings  the settings, not null
+     * @param encoded  the encoded form, as returned by {@link #write(JodaBeanSer, Bean)}, not null
+     * @param type  the bean type, not null
+     * @return the bean, not null
+     */
+    abstract <T> T read(JodaBeanSer settings, Object encoded, Class<T> type);
+
+    /**
+     * Gets the size of the encoded form in bytes.
+     * <p>
+     * Text formats are measured as UTF-8.
+     * 
+     * @param encoded  the encoded form, as returned by {@link #write(JodaBeanSer, Bean)}, not null
+     * @return the size in bytes, negative if not applicable
+     */
+    int payloadSize(Object encoded) {
+        return encoded.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+}
@@ -0,0 +1,414 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ImmutableBean;
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.gen.BeanDefinition;
+import org.joda.beans.gen.PropertyDefinition;
+import org.joda.beans.impl.direct.DirectFieldsBeanBuilder;
+import org.joda.beans.impl.direct.DirectMetaBean;
+import org.joda.beans.impl.direct.DirectMetaProperty;
+import org.joda.beans.impl.direct.DirectMetaPropertyMap;
+import org.joda.collect.grid.Grid;
+import org.joda.collect.grid.ImmutableGrid;
+
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+
+/**
+ * Mock immutable bean holding grids and tables, used for benchmarking.
+ * 
+ * @author Stephen Colebourne
+ */
+@BeanDefinition
+public final class ImmGridTable implements ImmutableBean {
+
+    /**
+     * The dense grid.
+     */
+    @PropertyDefinition(validate = "notNull")
+    private final ImmutableGrid<Double> denseGrid;
+    /**
+     * The sparse grid.
+     */
+    @PropertyDefinition(validate = "notNull")
+    private final ImmutableGrid<String> sparseGrid;
+    /**
+     * The table.
+     */
+    @PropertyDefinition(validate = "notNull")
+    private final ImmutableTable<String, String, Double> table;
+
+    //------------------------- AUTOGENERATED START -------------------------
+    /**
+     * The meta-bean for {@code ImmGridTable}.
+     * @return the meta-bean, not null
+     */
+    public static ImmGridTable.Meta meta() {
+        return ImmGridTable.Meta.INSTANCE;
+    }
+
+    static {
+        MetaBean.register(ImmGridTable.Meta.INSTANCE);
+    }
+
+    /**
+     * Returns a builder used to create an instance of the bean.
+     * @return the builder, not null
+     */
+    public static ImmGridTable.Builder builder() {
+        return new ImmGridTable.Builder();
+    }
+
+    private ImmGridTable(
+            Grid<Double> denseGrid,
+            Grid<String> sparseGrid,
+            Table<String, String, Double> table) {
+        JodaBeanUtils.notNull(denseGrid, "denseGrid");
+        JodaBeanUtils.notNull(sparseGrid, "sparseGrid");
+        JodaBeanUtils.notNull(table, "table");
+        this.denseGrid = ImmutableGrid.copyOf(denseGrid);
+        this.sparseGrid = ImmutableGrid.copyOf(sparseGrid);
+        this.table = ImmutableTable.copyOf(table);
+    }
+
+    @Override
+    public ImmGridTable.Meta metaBean() {
+        return ImmGridTable.Meta.INSTANCE;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the dense grid.
+     * @return the value of the property, not null
+     */
+    public ImmutableGrid<Double> getDenseGrid() {
+        return denseGrid;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the sparse grid.
+     * @return the value of the property, not null
+     */
+    public ImmutableGrid<String> getSparseGrid() {
+        return sparseGrid;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the table.
+     * @return the value of the property, not null
+     */
+    public ImmutableTable<String, String, Double> getTable() {
+        return table;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a builder that allows this bean to be mutated.
+     * @return the mutable builder, not null
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj != null && obj.getClass() == this.getClass()) {
+            ImmGridTable other = (ImmGridTable) obj;
+            return JodaBeanUtils.equal(denseGrid, other.denseGrid) &&
+                    JodaBeanUtils.equal(sparseGrid, other.sparseGrid) &&
+                    JodaBeanUtils.equal(table, other.table);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = getClass().hashCode();
+        hash = hash * 31 + JodaBeanUtils.hashCode(denseGrid);
+        hash = hash * 31 + JodaBeanUtils.hashCode(sparseGrid);
+        hash = hash * 31 + JodaBeanUtils.hashCode(table);
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(128);
+        buf.append("ImmGridTable{");
+        buf.append("denseGrid").append('=').append(denseGrid).append(',').append(' ');
+        buf.append("sparseGrid").append('=').append(sparseGrid).append(',').append(' ');
+        buf.append("table").append('=').append(JodaBeanUtils.toString(table));
+        buf.append('}');
+        return buf.toString();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The meta-bean for {@code ImmGridTable}.
+     */
+    public static final class Meta extends DirectMetaBean {
+        /**
+         * The singleton instance of the meta-bean.
+         */
+        static final Meta INSTANCE = new Meta();
+
+        /**
+         * The meta-property for the {@code denseGrid} property.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes" })
+        private final MetaProperty<ImmutableGrid<Double>> denseGrid = DirectMetaProperty.ofImmutable(
+                this, "denseGrid", ImmGridTable.class, (Class) ImmutableGrid.class);
+        /**
+         * The meta-property for the {@code sparseGrid} property.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes" })
+        private final MetaProperty<ImmutableGrid<String>> sparseGrid = DirectMetaProperty.ofImmutable(
+                this, "sparseGrid", ImmGridTable.class, (Class) ImmutableGrid.class);
+        /**
+         * The meta-property for the {@code table} property.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes" })
+        private final MetaProperty<ImmutableTable<String, String, Double>> table = DirectMetaProperty.ofImmutable(
+                this, "table", ImmGridTable.class, (Class) ImmutableTable.class);
+        /**
+         * The meta-properties.
+         */
+        private final Map<String, MetaProperty<?>> metaPropertyMap$ = new DirectMetaPropertyMap(
+                this, null,
+                "denseGrid",
+                "sparseGrid",
+                "table");
+
+        /**
+         * Restricted constructor.
+         */
+        private Meta() {
+        }
+
+        @Override
+        protected MetaProperty<?> metaPropertyGet(String propertyName) {
+            switch (propertyName.hashCode()) {
+                case 1802377989:  // denseGrid
+                    return denseGrid;
+                case 1337284998:  // sparseGrid
+                    return sparseGrid;
+                case 110115790:  // table
+                    return table;
+            }
+            return super.metaPropertyGet(propertyName);
+        }
+
+        @Override
+        public ImmGridTable.Builder builder() {
+            return new ImmGridTable.Builder();
+        }
+
+        @Override
+        public Class<? extends ImmGridTable> beanType() {
+            return ImmGridTable.class;
+        }
+
+        @Override
+        public Map<String, MetaProperty<?>> metaPropertyMap() {
+            return metaPropertyMap$;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * The meta-property for the {@code denseGrid} property.
+         * @return the meta-property, not null
+         */
+        public MetaProperty<ImmutableGrid<Double>> denseGrid() {
+            return denseGrid;
+        }
+
+        /**
+         * The meta-property for the {@code sparseGrid} property.
+         * @return the meta-property, not null
+         */
+        public MetaProperty<ImmutableGrid<String>> sparseGrid() {
+            return sparseGrid;
+        }
+
+        /**
+         * The meta-property for the {@code table} property.
+         * @return the meta-property, not null
+         */
+        public MetaProperty<ImmutableTable<String, String, Double>> table() {
+            return table;
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        protected Object propertyGet(Bean bean, String propertyName, boolean quiet) {
+            switch (propertyName.hashCode()) {
+                case 1802377989:  // denseGrid
+                    return ((ImmGridTable) bean).getDenseGrid();
+                case 1337284998:  // sparseGrid
+                    return ((ImmGridTable) bean).getSparseGrid();
+                case 110115790:  // table
+                    return ((ImmGridTable) bean).getTable();
+            }
+            return super.propertyGet(bean, propertyName, quiet);
+        }
+
+        @Override
+        protected void propertySet(Bean bean, String propertyName, Object newValue, boolean quiet) {
+            metaProperty(propertyName);
+            if (quiet) {
+                return;
+            }
+            throw new UnsupportedOperationException("Property cannot be written: " + propertyName);
+        }
+
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The bean-builder for {@code ImmGridTable}.
+     */
+    public static final class Builder extends DirectFieldsBeanBuilder<ImmGridTable> {
+
+        private Grid<Double> denseGrid = ImmutableGrid.of();
+        private Grid<String> sparseGrid = ImmutableGrid.of();
+        private Table<String, String, Double> table = ImmutableTable.of();
+
+        /**
+         * Restricted constructor.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Restricted copy constructor.
+         * @param beanToCopy  the bean to copy from, not null
+         */
+        private Builder(ImmGridTable beanToCopy) {
+            this.denseGrid = beanToCopy.getDenseGrid();
+            this.sparseGrid = beanToCopy.getSparseGrid();
+            this.table = beanToCopy.getTable();
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        public Object get(String propertyName) {
+            switch (propertyName.hashCode()) {
+                case 1802377989:  // denseGrid
+                    return denseGrid;
+                case 1337284998:  // sparseGrid
+                    return sparseGrid;
+                case 110115790:  // table
+                    return table;
+                default:
+                    throw new NoSuchElementException("Unknown property: " + propertyName);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Builder set(String propertyName, Object newValue) {
+            switch (propertyName.hashCode()) {
+                case 1802377989:  // denseGrid
+                    this.denseGrid = (Grid<Double>) newValue;
+                    break;
+                case 1337284998:  // sparseGrid
+                    this.sparseGrid = (Grid<String>) newValue;
+                    break;
+                case 110115790:  // table
+                    this.table = (Table<String, String, Double>) newValue;
+                    break;
+                default:
+                    throw new NoSuchElementException("Unknown property: " + propertyName);
+            }
+            return this;
+        }
+
+        @Override
+        public Builder set(MetaProperty<?> property, Object value) {
+            super.set(property, value);
+            return this;
+        }
+
+        @Override
+        public ImmGridTable build() {
+            return new ImmGridTable(
+                    denseGrid,
+                    sparseGrid,
+                    table);
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Sets the dense grid.
+         * @param denseGrid  the new value, not null
+         * @return this, for chaining, not null
+         */
+        public Builder denseGrid(Grid<Double> denseGrid) {
+            JodaBeanUtils.notNull(denseGrid, "denseGrid");
+            this.denseGrid = denseGrid;
+            return this;
+        }
+
+        /**
+         * Sets the sparse grid.
+         * @param sparseGrid  the new value, not null
+         * @return this, for chaining, not null
+         */
+        public Builder sparseGrid(Grid<String> sparseGrid) {
+            JodaBeanUtils.notNull(sparseGrid, "sparseGrid");
+            this.sparseGrid = sparseGrid;
+            return this;
+        }
+
+        /**
+         * Sets the table.
+         * @param table  the new value, not null
+         * @return this, for chaining, not null
+         */
+        public Builder table(Table<String, String, Double> table) {
+            JodaBeanUtils.notNull(table, "table");
+            this.table = table;
+            return this;
+        }
+
+        //-----------------------------------------------------------------------
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder(128);
+            buf.append("ImmGridTable.Builder{");
+            buf.append("denseGrid").append('=').append(JodaBeanUtils.toString(denseGrid)).append(',').append(' ');
+            buf.append("sparseGrid").append('=').append(JodaBeanUtils.toString(sparseGrid)).append(',').append(' ');
+            buf.append("table").append('=').append(JodaBeanUtils.toString(table));
+            buf.append('}');
+            return buf.toString();
+        }
+
+    }
+
+    //-------------------------- AUTOGENERATED END --------------------------
+}
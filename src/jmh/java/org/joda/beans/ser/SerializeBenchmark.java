@@ -0,0 +1,122 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.beans.Bean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks writing and reading each sample bean in each serialization format.
+ * <p>
+ * Run using {@code mvn -Djmh verify}, which also enables the GC profiler to report the allocation rate.
+ * The payload size of each combination is printed when the trial starts.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializeBenchmark {
+
+    /**
+     * The bean to serialize.
+     */
+    @Param
+    public BenchmarkBeans bean;
+    /**
+     * The format to use.
+     */
+    @Param
+    public BenchmarkFormat format;
+
+    /**
+     * The settings.
+     */
+    private final JodaBeanSer settings = JodaBeanSer.COMPACT;
+    /**
+     * The bean instance.
+     */
+    private Bean instance;
+    /**
+     * The bean type.
+     */
+    private Class<? extends Bean> type;
+    /**
+     * The encoded form of the bean.
+     */
+    private Object encoded;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates and encodes the bean.
+     */
+    @Setup
+    public void setup() {
+        instance = bean.create();
+        type = instance.getClass();
+        encoded = format.write(settings, instance);
+        // the simple formats are lossy for some types, such as multimaps, so only check that decoding works
+        format.read(settings, encoded, type);
+        int size = format.payloadSize(encoded);
+        System.out.println();
+        System.out.println("Payload size: " + bean + " " + format + " " + (size < 0 ? "n/a" : size + " bytes"));
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the bean.
+     * 
+     * @return the encoded form
+     */
+    @Benchmark
+    public Object write() {
+        return format.write(settings, instance);
+    }
+
+    /**
+     * Reads the bean.
+     * 
+     * @return the bean
+     */
+    @Benchmark
+    public Object read() {
+        return format.read(settings, encoded, type);
+    }
+
+    /**
+     * Writes then reads the bean.
+     * 
+     * @return the bean
+     */
+    @Benchmark
+    public Object roundTrip() {
+        return format.read(settings, format.write(settings, instance), type);
+    }
+
+}
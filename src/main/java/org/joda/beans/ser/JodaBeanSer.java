@@ -16,6 +16,7 @@
 package org.joda.beans.ser;
 
 import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.ser.bin.JodaBeanBinFormat;
 import org.joda.beans.ser.bin.JodaBeanBinReader;
 import org.joda.beans.ser.bin.JodaBeanBinWriter;
 import org.joda.beans.ser.json.JodaBeanJsonReader;
@@ -267,6 +268,19 @@ public final class JodaBeanSer {
         return new JodaBeanBinWriter(this);
     }
 
+    /**
+     * Creates a binary writer for the specified format.
+     * <p>
+     * The {@link JodaBeanBinFormat#INDEXED indexed} format is smaller and faster to read
+     * when the message contains many beans of the same type.
+     * 
+     * @param format  the format to write, not null
+     * @return the binary writer, not null
+     */
+    public JodaBeanBinWriter binWriter(JodaBeanBinFormat format) {
+        return new JodaBeanBinWriter(this, format);
+    }
+
     /**
      * Creates a binary reader.
      * <p>
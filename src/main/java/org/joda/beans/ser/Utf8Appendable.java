@@ -0,0 +1,207 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@code Appendable} that encodes characters directly to UTF-8 bytes.
+ * <p>
+ * The bytes are written in blocks to the output stream, with a fast path for ASCII,
+ * avoiding the overhead of a {@code Writer} and charset encoder.
+ * Unpaired surrogates are encoded as '?', as per the standard encoder.
+ * <p>
+ * This is used by the JSON and XML writers when writing to an {@code OutputStream}.
+ * Text that is written repeatedly, such as a tag name, can be encoded once and
+ * written using {@link #write(byte[])}.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ */
+public final class Utf8Appendable implements Appendable, Flushable {
+
+    /**
+     * The size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The output stream.
+     */
+    private final OutputStream output;
+    /**
+     * The buffer of bytes.
+     */
+    private final byte[] bytes;
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int size;
+    /**
+     * The high surrogate awaiting its low surrogate, zero if none.
+     */
+    private char highSurrogate;
+
+    /**
+     * Creates an instance.
+     *
+     * @param output  the output stream to write to, not null
+     */
+    public Utf8Appendable(OutputStream output) {
+        this(output, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an instance using the specified buffer size.
+     *
+     * @param output  the output stream to write to, not null
+     * @param bufferSize  the buffer size, at least 4
+     */
+    Utf8Appendable(OutputStream output, int bufferSize) {
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        this.output = output;
+        this.bytes = new byte[bufferSize];
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        CharSequence seq = (csq == null ? "null" : csq);
+        return append(seq, 0, seq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence seq = (csq == null ? "null" : csq);
+        int i = start;
+        while (i < end) {
+            // fast path for ASCII
+            if (highSurrogate == 0) {
+                int available = Math.min(end - i, bytes.length - size);
+                int asciiEnd = i + available;
+                while (i < asciiEnd) {
+                    char ch = seq.charAt(i);
+                    if (ch >= 0x80) {
+                        break;
+                    }
+                    bytes[size++] = (byte) ch;
+                    i++;
+                }
+                if (size == bytes.length) {
+                    flushBuffer();
+                }
+                if (i == end) {
+                    break;
+                }
+            }
+            append(seq.charAt(i++));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char ch) throws IOException {
+        if (bytes.length - size < 4) {
+            flushBuffer();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(ch)) {
+                int codePoint = Character.toCodePoint(high, ch);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                return this;
+            }
+            bytes[size++] = '?';
+            return append(ch);
+        }
+        if (ch < 0x80) {
+            bytes[size++] = (byte) ch;
+        } else if (ch < 0x800) {
+            bytes[size++] = (byte) (0xC0 | (ch >> 6));
+            bytes[size++] = (byte) (0x80 | (ch & 0x3F));
+        } else if (Character.isHighSurrogate(ch)) {
+            highSurrogate = ch;
+        } else if (Character.isLowSurrogate(ch)) {
+            bytes[size++] = '?';
+        } else {
+            bytes[size++] = (byte) (0xE0 | (ch >> 12));
+            bytes[size++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (ch & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * Writes bytes that are already encoded in UTF-8.
+     * <p>
+     * A preceding unpaired high surrogate is encoded as '?'.
+     *
+     * @param encoded  the UTF-8 bytes, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(byte[] encoded) throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (size == bytes.length) {
+                flushBuffer();
+            }
+            bytes[size++] = '?';
+        }
+        if (encoded.length > bytes.length - size) {
+            flushBuffer();
+            if (encoded.length > bytes.length) {
+                output.write(encoded);
+                return;
+            }
+        }
+        System.arraycopy(encoded, 0, bytes, size, encoded.length);
+        size += encoded.length;
+    }
+
+    /**
+     * Writes the buffered bytes to the output stream, and flushes the stream.
+     * <p>
+     * A trailing unpaired high surrogate is encoded as '?'.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (size == bytes.length) {
+                flushBuffer();
+            }
+            bytes[size++] = '?';
+        }
+        flushBuffer();
+        output.flush();
+    }
+
+    // writes the buffered bytes to the output stream
+    private void flushBuffer() throws IOException {
+        output.write(bytes, 0, size);
+        size = 0;
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A growable buffer of bytes that binary data can be written into.
+ * <p>
+ * This is used with {@link JodaBeanBinWriter} to avoid allocating and copying
+ * a new array for each message. The caller owns the buffer and can {@link #reset()}
+ * it to write the next message into the same backing array.
+ * The written data is accessed using {@link #array()} and {@link #size()}.
+ * <p>
+ * This class is mutable and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public final class BinaryBuffer {
+
+    /**
+     * The backing array.
+     */
+    private byte[] bytes;
+    /**
+     * The number of bytes written.
+     */
+    private int size;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance with an initial capacity of 1024 bytes.
+     */
+    public BinaryBuffer() {
+        this(1024);
+    }
+
+    /**
+     * Creates an instance with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity, zero or greater
+     */
+    public BinaryBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must not be negative");
+        }
+        this.bytes = new byte[initialCapacity];
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the backing array.
+     * <p>
+     * The written data occupies the array from index zero to {@link #size()}.
+     * The array is not copied, thus changes to the array affect the buffer.
+     * The backing array is replaced when the buffer grows, so the result
+     * should not be retained across writes.
+     *
+     * @return the backing array, not null
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the number of bytes written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Resets the buffer so that it is empty, retaining the backing array.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Returns a copy of the written bytes.
+     *
+     * @return the written bytes, not null
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * Returns a {@code ByteBuffer} view of the written bytes.
+     * <p>
+     * The result wraps the backing array without copying, with the position
+     * at zero and the limit at the number of bytes written.
+     *
+     * @return the byte buffer view, not null
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, size);
+    }
+
+    /**
+     * Writes the written bytes to the specified stream.
+     *
+     * @param out  the stream to write to, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Ensures there is space to write the specified number of bytes.
+     *
+     * @param required  the number of bytes that will be written
+     */
+    void ensureCapacity(int required) {
+        int minCapacity = size + required;
+        if (minCapacity - bytes.length > 0) {
+            grow(minCapacity);
+        }
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new IllegalStateException("Binary data too large");
+        }
+        int newCapacity = bytes.length << 1;
+        if (newCapacity - minCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        bytes = Arrays.copyOf(bytes, newCapacity);
+    }
+
+    // the following methods do not check capacity, call ensureCapacity() first
+    void put(int value) {
+        bytes[size++] = (byte) value;
+    }
+
+    void putShort(int value) {
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    void putInt(int value) {
+        bytes[size++] = (byte) (value >>> 24);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) value;
+    }
+
+    void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    void put(byte[] data, int offset, int length) {
+        System.arraycopy(data, offset, bytes, size, length);
+        size += length;
+    }
+
+    // overwrites previously written data
+    void setInt(int index, int value) {
+        bytes[index] = (byte) (value >>> 24);
+        bytes[index + 1] = (byte) (value >>> 16);
+        bytes[index + 2] = (byte) (value >>> 8);
+        bytes[index + 3] = (byte) value;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "BinaryBuffer[size=" + size + "]";
+    }
+
+}
@@ -0,0 +1,784 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A source of big-endian binary data.
+ * <p>
+ * Arrays and buffers are read using a cursor, accessing the data by index.
+ * Streams are read using a {@code DataInputStream}.
+ *
+ * @author Stephen Colebourne
+ */
+abstract class BinaryInput {
+
+    /**
+     * UTF-8 encoding.
+     */
+    static final Charset UTF_8 = StandardCharsets.UTF_8;
+
+    /**
+     * The scratch array used when matching cached strings.
+     */
+    private final byte[] scratch = new byte[BinaryStringCache.MAX_LENGTH];
+
+    /**
+     * Creates an instance reading from an array.
+     *
+     * @param bytes  the bytes to read, not null
+     * @return the input, not null
+     */
+    static BinaryInput of(byte[] bytes) {
+        return new ArrayInput(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an instance reading from part of an array.
+     *
+     * @param bytes  the bytes to read, not null
+     * @param offset  the offset to start reading from
+     * @param length  the number of bytes that may be read
+     * @return the input, not null
+     */
+    static BinaryInput of(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException("Invalid offset or length");
+        }
+        return new ArrayInput(bytes, offset, offset + length);
+    }
+
+    /**
+     * Creates an instance reading from a buffer.
+     * <p>
+     * The data is read from the position to the limit of the buffer.
+     * When the input is closed, the position of the buffer is set to the end of the data read.
+     * Heap, direct and memory-mapped buffers are all read without copying.
+     *
+     * @param buffer  the buffer to read, not null
+     * @return the input, not null
+     */
+    static BinaryInput of(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ArrayInput(buffer);
+        }
+        return new BufferInput(buffer);
+    }
+
+    /**
+     * Creates an instance reading from a file channel using memory-mapping.
+     * <p>
+     * The data is read from the position to the end of the channel.
+     * The file is mapped in segments, allowing files larger than 2Gb to be read.
+     * When the input is closed, the position of the channel is set to the end of the data read.
+     * The channel is not closed.
+     *
+     * @param channel  the channel to read, not null
+     * @return the input, not null
+     * @throws IOException if an error occurs
+     */
+    static BinaryInput of(FileChannel channel) throws IOException {
+        return new MappedInput(channel, MappedInput.SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates an instance reading from a stream.
+     * <p>
+     * When the input is closed, the stream is closed.
+     *
+     * @param stream  the stream to read, not null
+     * @return the input, not null
+     */
+    static BinaryInput of(InputStream stream) {
+        return new StreamInput(stream);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads a byte, returning -1 at the end of the input.
+     *
+     * @return the unsigned byte, or -1 at the end of the input
+     * @throws IOException if an error occurs
+     */
+    abstract int read() throws IOException;
+
+    /**
+     * Reads a signed byte.
+     *
+     * @return the byte
+     * @throws IOException if an error occurs
+     */
+    abstract byte readByte() throws IOException;
+
+    /**
+     * Reads an unsigned byte.
+     *
+     * @return the byte
+     * @throws IOException if an error occurs
+     */
+    abstract int readUnsignedByte() throws IOException;
+
+    /**
+     * Reads a signed two byte value.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    abstract short readShort() throws IOException;
+
+    /**
+     * Reads an unsigned two byte value.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    abstract int readUnsignedShort() throws IOException;
+
+    /**
+     * Reads a four byte value.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    abstract int readInt() throws IOException;
+
+    /**
+     * Reads an eight byte value.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    abstract long readLong() throws IOException;
+
+    /**
+     * Reads a four byte float.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    /**
+     * Reads an eight byte double.
+     *
+     * @return the value
+     * @throws IOException if an error occurs
+     */
+    double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    /**
+     * Reads enough bytes to fill the array.
+     *
+     * @param bytes  the array to fill, not null
+     * @throws IOException if an error occurs
+     */
+    void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, bytes.length);
+    }
+
+    /**
+     * Reads bytes into the start of the array.
+     *
+     * @param bytes  the array to fill, not null
+     * @param size  the number of bytes to read
+     * @throws IOException if an error occurs
+     */
+    abstract void readFully(byte[] bytes, int size) throws IOException;
+
+    /**
+     * Reads a UTF-8 string of the specified size in bytes.
+     *
+     * @param size  the size in bytes
+     * @return the string, not null
+     * @throws IOException if an error occurs
+     */
+    String readString(int size) throws IOException {
+        byte[] bytes = new byte[size];
+        readFully(bytes);
+        return decodeString(bytes, 0, size);
+    }
+
+    /**
+     * Reads a UTF-8 string of the specified size in bytes, matching it against the cache.
+     * <p>
+     * If the string is in the cache, no string is decoded.
+     *
+     * @param size  the size in bytes
+     * @param cache  the cache, not null
+     * @return the cache entry, not null
+     * @throws IOException if an error occurs
+     */
+    BinaryStringCache.Entry readString(int size, BinaryStringCache cache) throws IOException {
+        byte[] bytes = size <= BinaryStringCache.MAX_LENGTH ? scratch : new byte[size];
+        readFully(bytes, size);
+        return cache.lookup(bytes, 0, size);
+    }
+
+    /**
+     * Skips the specified number of bytes.
+     *
+     * @param size  the number of bytes to skip
+     * @throws IOException if an error occurs
+     */
+    abstract void skipBytes(int size) throws IOException;
+
+    /**
+     * Marks the current position, allowing a small amount of lookahead.
+     *
+     * @throws IOException if an error occurs
+     */
+    abstract void mark() throws IOException;
+
+    /**
+     * Resets to the last marked position.
+     *
+     * @throws IOException if an error occurs
+     */
+    abstract void reset() throws IOException;
+
+    /**
+     * Closes the input.
+     *
+     * @throws IOException if an error occurs
+     */
+    abstract void close() throws IOException;
+
+    //-----------------------------------------------------------------------
+    // decodes UTF-8, inlining common ASCII case for much better performance
+    static String decodeString(byte[] bytes, int offset, int size) {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            byte b = bytes[offset + i];
+            if (b >= 0) {
+                chars[i] = (char) b;
+            } else {
+                return new String(bytes, offset, size, UTF_8);
+            }
+        }
+        return new String(chars);
+    }
+
+    // decodes ASCII using absolute gets, returning null if not ASCII
+    static String decodeAscii(ByteBuffer buffer, int index, int size) {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            byte b = buffer.get(index + i);
+            if (b >= 0) {
+                chars[i] = (char) b;
+            } else {
+                return null;
+            }
+        }
+        return new String(chars);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads from an array, including the array backing a heap buffer.
+     */
+    static final class ArrayInput extends BinaryInput {
+        private final byte[] bytes;
+        private final int limit;
+        private final ByteBuffer buffer;
+        private final int bufferOffset;
+        private int pos;
+        private int mark;
+
+        ArrayInput(byte[] bytes, int offset, int limit) {
+            this.bytes = bytes;
+            this.pos = offset;
+            this.limit = limit;
+            this.buffer = null;
+            this.bufferOffset = 0;
+        }
+
+        ArrayInput(ByteBuffer buffer) {
+            this.bytes = buffer.array();
+            this.bufferOffset = buffer.arrayOffset();
+            this.pos = bufferOffset + buffer.position();
+            this.limit = bufferOffset + buffer.limit();
+            this.buffer = buffer;
+        }
+
+        private void require(int size) throws EOFException {
+            if (size < 0 || size > limit - pos) {
+                throw new EOFException();
+            }
+        }
+
+        @Override
+        int read() {
+            return pos < limit ? bytes[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        byte readByte() throws IOException {
+            require(1);
+            return bytes[pos++];
+        }
+
+        @Override
+        int readUnsignedByte() throws IOException {
+            require(1);
+            return bytes[pos++] & 0xFF;
+        }
+
+        @Override
+        short readShort() throws IOException {
+            return (short) readUnsignedShort();
+        }
+
+        @Override
+        int readUnsignedShort() throws IOException {
+            require(2);
+            int result = ((bytes[pos] & 0xFF) << 8) | (bytes[pos + 1] & 0xFF);
+            pos += 2;
+            return result;
+        }
+
+        @Override
+        int readInt() throws IOException {
+            require(4);
+            byte[] b = bytes;
+            int p = pos;
+            pos = p + 4;
+            return ((b[p] & 0xFF) << 24) | ((b[p + 1] & 0xFF) << 16) | ((b[p + 2] & 0xFF) << 8) | (b[p + 3] & 0xFF);
+        }
+
+        @Override
+        long readLong() throws IOException {
+            require(8);
+            long high = readInt();
+            long low = readInt();
+            return (high << 32) | (low & 0xFFFFFFFFL);
+        }
+
+        @Override
+        void readFully(byte[] array, int size) throws IOException {
+            require(size);
+            System.arraycopy(bytes, pos, array, 0, size);
+            pos += size;
+        }
+
+        @Override
+        String readString(int size) throws IOException {
+            require(size);
+            String str = decodeString(bytes, pos, size);
+            pos += size;
+            return str;
+        }
+
+        @Override
+        BinaryStringCache.Entry readString(int size, BinaryStringCache cache) throws IOException {
+            require(size);
+            BinaryStringCache.Entry entry = cache.lookup(bytes, pos, size);
+            pos += size;
+            return entry;
+        }
+
+        @Override
+        void skipBytes(int size) throws IOException {
+            require(size);
+            pos += size;
+        }
+
+        @Override
+        void mark() {
+            mark = pos;
+        }
+
+        @Override
+        void reset() {
+            pos = mark;
+        }
+
+        @Override
+        void close() {
+            if (buffer != null) {
+                buffer.position(pos - bufferOffset);
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads from a buffer that is not backed by an array, such as a direct or memory-mapped buffer.
+     */
+    static final class BufferInput extends BinaryInput {
+        private final ByteBuffer original;
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int pos;
+        private int mark;
+
+        BufferInput(ByteBuffer buffer) {
+            // duplicate ensures big-endian without changing the caller's buffer
+            this.original = buffer;
+            this.buffer = buffer.duplicate();
+            this.pos = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        private void require(int size) throws EOFException {
+            if (size < 0 || size > limit - pos) {
+                throw new EOFException();
+            }
+        }
+
+        @Override
+        int read() {
+            return pos < limit ? buffer.get(pos++) & 0xFF : -1;
+        }
+
+        @Override
+        byte readByte() throws IOException {
+            require(1);
+            return buffer.get(pos++);
+        }
+
+        @Override
+        int readUnsignedByte() throws IOException {
+            require(1);
+            return buffer.get(pos++) & 0xFF;
+        }
+
+        @Override
+        short readShort() throws IOException {
+            require(2);
+            short result = buffer.getShort(pos);
+            pos += 2;
+            return result;
+        }
+
+        @Override
+        int readUnsignedShort() throws IOException {
+            return readShort() & 0xFFFF;
+        }
+
+        @Override
+        int readInt() throws IOException {
+            require(4);
+            int result = buffer.getInt(pos);
+            pos += 4;
+            return result;
+        }
+
+        @Override
+        long readLong() throws IOException {
+            require(8);
+            long result = buffer.getLong(pos);
+            pos += 8;
+            return result;
+        }
+
+        @Override
+        void readFully(byte[] array, int size) throws IOException {
+            require(size);
+            buffer.position(pos);
+            buffer.get(array, 0, size);
+            pos += size;
+        }
+
+        @Override
+        String readString(int size) throws IOException {
+            require(size);
+            String str = decodeAscii(buffer, pos, size);
+            if (str == null) {
+                return super.readString(size);
+            }
+            pos += size;
+            return str;
+        }
+
+        @Override
+        void skipBytes(int size) throws IOException {
+            require(size);
+            pos += size;
+        }
+
+        @Override
+        void mark() {
+            mark = pos;
+        }
+
+        @Override
+        void reset() {
+            pos = mark;
+        }
+
+        @Override
+        void close() {
+            original.position(pos);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads from a file channel, mapping the file in segments.
+     * <p>
+     * Each segment is mapped starting from the position where the previous segment ran out.
+     * Thus, reads of primitive values never straddle two segments.
+     */
+    static final class MappedInput extends BinaryInput {
+        /**
+         * The maximum size of each mapped segment.
+         */
+        static final int SEGMENT_SIZE = 1 << 30;
+        private final FileChannel channel;
+        private final int segmentSize;
+        private final long start;
+        private final long limit;
+        private ByteBuffer segment;
+        private long segmentStart;
+        private long pos;
+        private long mark;
+
+        MappedInput(FileChannel channel, int segmentSize) throws IOException {
+            this.channel = channel;
+            this.segmentSize = segmentSize;
+            this.start = channel.position();
+            this.limit = Math.max(channel.size() - start, 0);
+            map(0);
+        }
+
+        // maps the segment starting at the specified position
+        private void map(long position) throws IOException {
+            long size = Math.min(segmentSize, limit - position);
+            segment = channel.map(MapMode.READ_ONLY, start + position, size);
+            segmentStart = position;
+        }
+
+        // returns the index within the segment of the next value, advancing the position
+        // the segment may be remapped, thus this must be called before accessing the segment
+        private int index(int size) throws IOException {
+            if (size < 0 || size > limit - pos) {
+                throw new EOFException();
+            }
+            long offset = pos - segmentStart;
+            if (offset < 0 || offset + size > segment.limit()) {
+                map(pos);
+                offset = 0;
+            }
+            pos += size;
+            return (int) offset;
+        }
+
+        @Override
+        int read() throws IOException {
+            if (pos >= limit) {
+                return -1;
+            }
+            int index = index(1);
+            return segment.get(index) & 0xFF;
+        }
+
+        @Override
+        byte readByte() throws IOException {
+            int index = index(1);
+            return segment.get(index);
+        }
+
+        @Override
+        int readUnsignedByte() throws IOException {
+            int index = index(1);
+            return segment.get(index) & 0xFF;
+        }
+
+        @Override
+        short readShort() throws IOException {
+            int index = index(2);
+            return segment.getShort(index);
+        }
+
+        @Override
+        int readUnsignedShort() throws IOException {
+            int index = index(2);
+            return segment.getShort(index) & 0xFFFF;
+        }
+
+        @Override
+        int readInt() throws IOException {
+            int index = index(4);
+            return segment.getInt(index);
+        }
+
+        @Override
+        long readLong() throws IOException {
+            int index = index(8);
+            return segment.getLong(index);
+        }
+
+        @Override
+        void readFully(byte[] array, int size) throws IOException {
+            if (size < 0 || size > limit - pos) {
+                throw new EOFException();
+            }
+            int done = 0;
+            while (done < size) {
+                long offset = pos - segmentStart;
+                if (offset < 0 || offset >= segment.limit()) {
+                    map(pos);
+                    offset = 0;
+                }
+                int chunk = (int) Math.min(size - done, segment.limit() - offset);
+                ByteBuffer view = segment.duplicate();
+                view.position((int) offset);
+                view.get(array, done, chunk);
+                done += chunk;
+                pos += chunk;
+            }
+        }
+
+        @Override
+        String readString(int size) throws IOException {
+            long offset = pos - segmentStart;
+            if (size >= 0 && size <= limit - pos && offset >= 0 && offset + size <= segment.limit()) {
+                String str = decodeAscii(segment, (int) offset, size);
+                if (str != null) {
+                    pos += size;
+                    return str;
+                }
+            }
+            return super.readString(size);
+        }
+
+        @Override
+        void skipBytes(int size) throws IOException {
+            if (size < 0 || size > limit - pos) {
+                throw new EOFException();
+            }
+            pos += size;
+        }
+
+        @Override
+        void mark() {
+            mark = pos;
+        }
+
+        @Override
+        void reset() {
+            pos = mark;
+        }
+
+        @Override
+        void close() throws IOException {
+            channel.position(start + pos);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads from a stream.
+     */
+    static final class StreamInput extends BinaryInput {
+        private final DataInputStream input;
+
+        StreamInput(InputStream stream) {
+            if (stream instanceof DataInputStream && stream.markSupported()) {
+                this.input = (DataInputStream) stream;
+            } else if (stream.markSupported()) {
+                this.input = new DataInputStream(stream);
+            } else {
+                this.input = new DataInputStream(new BufferedInputStream(stream));
+            }
+        }
+
+        @Override
+        int read() throws IOException {
+            return input.read();
+        }
+
+        @Override
+        byte readByte() throws IOException {
+            return input.readByte();
+        }
+
+        @Override
+        int readUnsignedByte() throws IOException {
+            return input.readUnsignedByte();
+        }
+
+        @Override
+        short readShort() throws IOException {
+            return input.readShort();
+        }
+
+        @Override
+        int readUnsignedShort() throws IOException {
+            return input.readUnsignedShort();
+        }
+
+        @Override
+        int readInt() throws IOException {
+            return input.readInt();
+        }
+
+        @Override
+        long readLong() throws IOException {
+            return input.readLong();
+        }
+
+        @Override
+        void readFully(byte[] bytes, int size) throws IOException {
+            input.readFully(bytes, 0, size);
+        }
+
+        @Override
+        void skipBytes(int size) throws IOException {
+            if (size < 0) {
+                throw new EOFException();
+            }
+            int remaining = size;
+            while (remaining > 0) {
+                int skipped = input.skipBytes(remaining);
+                if (skipped <= 0) {
+                    throw new EOFException();
+                }
+                remaining -= skipped;
+            }
+        }
+
+        @Override
+        void mark() {
+            input.mark(16);
+        }
+
+        @Override
+        void reset() throws IOException {
+            input.reset();
+        }
+
+        @Override
+        void close() throws IOException {
+            input.close();
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.util.Arrays;
+
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+
+/**
+ * A bounded cache of short strings keyed on their UTF-8 bytes.
+ * <p>
+ * Binary data repeats the same property names and type strings many times.
+ * This cache allows the reader to match the raw bytes against strings already
+ * seen, avoiding the cost of decoding and allocating a new string each time.
+ * Each entry can also hold the meta-property that the string resolves to.
+ * <p>
+ * This class is mutable and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+final class BinaryStringCache {
+
+    /**
+     * The maximum length in bytes of a string that is cached.
+     */
+    static final int MAX_LENGTH = 64;
+    /**
+     * The maximum number of entries.
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    /**
+     * The meta-bean that entries resolve against, null if not resolving meta-properties.
+     */
+    private final MetaBean metaBean;
+    /**
+     * The hash table, size is a power of two.
+     */
+    private Entry[] table = new Entry[32];
+    /**
+     * The number of entries.
+     */
+    private int size;
+    /**
+     * The entries by property index, used by the indexed format.
+     */
+    private Entry[] indexed = new Entry[0];
+
+    /**
+     * Creates an instance.
+     */
+    BinaryStringCache() {
+        this(null);
+    }
+
+    /**
+     * Creates an instance that resolves property names against a meta-bean.
+     *
+     * @param metaBean  the meta-bean, may be null
+     */
+    BinaryStringCache(MetaBean metaBean) {
+        this.metaBean = metaBean;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the meta-bean that entries resolve against.
+     *
+     * @return the meta-bean, null if not resolving meta-properties
+     */
+    MetaBean getMetaBean() {
+        return metaBean;
+    }
+
+    /**
+     * Looks up the entry for the specified UTF-8 bytes, adding it if absent.
+     * <p>
+     * The bytes are only copied when a new entry is added.
+     * Strings longer than {@link #MAX_LENGTH}, and strings seen once the cache is full,
+     * are returned in a new entry that is not stored.
+     *
+     * @param bytes  the array containing the bytes, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     * @return the entry, not null
+     */
+    Entry lookup(byte[] bytes, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            return new Entry(null, 0, BinaryInput.decodeString(bytes, offset, length));
+        }
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[offset + i];
+        }
+        Entry[] tbl = table;
+        int index = hash & (tbl.length - 1);
+        for (Entry entry = tbl[index]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.matches(bytes, offset, length)) {
+                return entry;
+            }
+        }
+        byte[] key = new byte[length];
+        System.arraycopy(bytes, offset, key, 0, length);
+        Entry entry = new Entry(key, hash, BinaryInput.decodeString(bytes, offset, length));
+        if (size < MAX_ENTRIES) {
+            if (size >= tbl.length >> 1) {
+                tbl = resize();
+                index = hash & (tbl.length - 1);
+            }
+            entry.next = tbl[index];
+            tbl[index] = entry;
+            size++;
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the entry for the specified property index, adding it if absent.
+     * <p>
+     * This is used by the indexed format where property names are referred to by index.
+     *
+     * @param index  the property index, zero or greater
+     * @param name  the property name for the index, not null
+     * @return the entry, not null
+     */
+    Entry lookup(int index, String name) {
+        if (index >= indexed.length) {
+            indexed = Arrays.copyOf(indexed, Math.max(index + 1, indexed.length * 2));
+        }
+        Entry entry = indexed[index];
+        if (entry == null) {
+            entry = new Entry(null, 0, name);
+            indexed[index] = entry;
+        }
+        return entry;
+    }
+
+    /**
+     * Clears the entries by property index, retaining the entries keyed on bytes.
+     * <p>
+     * Property indexes are only valid within a single message.
+     */
+    void clearIndexed() {
+        Arrays.fill(indexed, null);
+    }
+
+    // doubles the size of the table
+    private Entry[] resize() {
+        Entry[] oldTable = table;
+        Entry[] newTable = new Entry[oldTable.length << 1];
+        int mask = newTable.length - 1;
+        for (Entry head : oldTable) {
+            Entry entry = head;
+            while (entry != null) {
+                Entry next = entry.next;
+                int index = entry.hash & mask;
+                entry.next = newTable[index];
+                newTable[index] = entry;
+                entry = next;
+            }
+        }
+        table = newTable;
+        return newTable;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An entry in the cache.
+     */
+    static final class Entry {
+        /**
+         * The UTF-8 bytes.
+         */
+        private final byte[] bytes;
+        /**
+         * The hash of the bytes.
+         */
+        private final int hash;
+        /**
+         * The decoded string.
+         */
+        final String string;
+        /**
+         * The resolved meta-property, null if not a known property.
+         */
+        MetaProperty<?> metaProperty;
+        /**
+         * Whether the meta-property has been resolved.
+         */
+        boolean resolved;
+        /**
+         * The next entry in the bucket.
+         */
+        private Entry next;
+
+        Entry(byte[] bytes, int hash, String string) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.string = string;
+        }
+
+        private boolean matches(byte[] other, int offset, int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != other[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
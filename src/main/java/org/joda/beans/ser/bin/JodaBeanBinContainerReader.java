@@ -0,0 +1,463 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.joda.beans.ser.bin.JodaBeanBinContainerWriter.FOOTER_SIZE;
+import static org.joda.beans.ser.bin.JodaBeanBinContainerWriter.FRAME_HEADER_SIZE;
+import static org.joda.beans.ser.bin.JodaBeanBinContainerWriter.INDEX_HEADER_SIZE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides the ability to read Joda-Beans from a binary container.
+ * <p>
+ * The container format is defined by {@link JodaBeanBinContainerWriter}.
+ * Each bean can be read by number, without decoding any other bean.
+ * If the container has an offset index, the frames are located using the index.
+ * Otherwise, the frames are located by scanning the frame headers when the reader is created.
+ * <p>
+ * The data is read without copying, from a buffer or by memory-mapping a file.
+ * The container must extend to the limit of the buffer, or the end of the file.
+ * Binary messages stored back to back without frames can also be read if their offsets are known.
+ * <p>
+ * The beans can be decoded in parallel using {@link #stream(Class)}.
+ * Each part of a parallel stream uses its own {@link JodaBeanBinReader},
+ * with all the readers sharing a thread-safe cache of types.
+ * <p>
+ * This class contains mutable state.
+ * The {@code read} methods cannot be used from multiple threads, but the stream can be processed in parallel.
+ *
+ * @author Stephen Colebourne
+ */
+public final class JodaBeanBinContainerReader {
+
+    /**
+     * The maximum size of each mapped segment.
+     */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * The settings.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The cache of types shared by all the readers.
+     */
+    private final ConcurrentMap<String, Map<String, Class<?>>> sharedTypes = new ConcurrentHashMap<>();
+    /**
+     * The reader used by the {@code read} methods.
+     */
+    private final JodaBeanBinReader reader;
+    /**
+     * The buffer, null if reading a file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The file channel, null if reading a buffer.
+     */
+    private final FileChannel channel;
+    /**
+     * The size of each mapped segment of the file.
+     */
+    private final int segmentSize;
+    /**
+     * The mapped segments of the file, mapped when first used, null if reading a buffer.
+     */
+    private final AtomicReferenceArray<ByteBuffer> segments;
+    /**
+     * The position of the start of the container in the buffer or file.
+     */
+    private final long start;
+    /**
+     * The length of the container.
+     */
+    private final long length;
+    /**
+     * Whether each bean is held in a frame.
+     */
+    private final boolean framed;
+    /**
+     * The offset of each frame, or each message if not framed, relative to the start of the container.
+     */
+    private final long[] offsets;
+    /**
+     * Whether the offsets were known without scanning the frames.
+     */
+    private final boolean indexed;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance reading from a buffer.
+     * <p>
+     * The container is read from the position to the limit of the buffer.
+     * The position of the buffer is not changed.
+     * Heap, direct and memory-mapped buffers are supported.
+     *
+     * @param settings  the settings, not null
+     * @param input  the input buffer, not null
+     */
+    public JodaBeanBinContainerReader(final JodaBeanSer settings, final ByteBuffer input) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (input == null) {
+            throw new NullPointerException("input");
+        }
+        this.settings = settings;
+        this.reader = new JodaBeanBinReader(settings, sharedTypes);
+        this.buffer = input;
+        this.channel = null;
+        this.segmentSize = 0;
+        this.segments = null;
+        this.start = input.position();
+        this.length = input.remaining();
+        this.framed = true;
+        long[] index = readIndex();
+        this.offsets = index != null ? index : scanFrames();
+        this.indexed = index != null;
+    }
+
+    /**
+     * Creates an instance reading binary messages stored back to back in a buffer, without frames.
+     * <p>
+     * Each message is read from its offset up to the offset of the next message,
+     * with the last message extending to the limit of the buffer.
+     * The offsets are relative to the position of the buffer, which is not changed.
+     * Heap, direct and memory-mapped buffers are supported.
+     *
+     * @param settings  the settings, not null
+     * @param input  the input buffer, not null
+     * @param offsets  the offset of each message, in ascending order, not null
+     */
+    public JodaBeanBinContainerReader(final JodaBeanSer settings, final ByteBuffer input, final int[] offsets) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (input == null) {
+            throw new NullPointerException("input");
+        }
+        if (offsets == null) {
+            throw new NullPointerException("offsets");
+        }
+        this.settings = settings;
+        this.reader = new JodaBeanBinReader(settings, sharedTypes);
+        this.buffer = input;
+        this.channel = null;
+        this.segmentSize = 0;
+        this.segments = null;
+        this.start = input.position();
+        this.length = input.remaining();
+        this.framed = false;
+        this.offsets = new long[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0 || offsets[i] >= length || (i > 0 && offsets[i] <= offsets[i - 1])) {
+                throw new IllegalArgumentException("Invalid offset: " + offsets[i]);
+            }
+            this.offsets[i] = offsets[i];
+        }
+        this.indexed = true;
+    }
+
+    /**
+     * Creates an instance reading from a file using memory-mapping.
+     * <p>
+     * The container is read from the position of the channel to the end of the file.
+     * The file is mapped in segments, allowing files larger than 2Gb to be read.
+     * The position of the channel is not changed and the channel is not closed.
+     *
+     * @param settings  the settings, not null
+     * @param input  the input file channel, not null
+     */
+    public JodaBeanBinContainerReader(final JodaBeanSer settings, final FileChannel input) {
+        this(settings, input, SEGMENT_SIZE);
+    }
+
+    // creates an instance with the specified segment size
+    JodaBeanBinContainerReader(final JodaBeanSer settings, final FileChannel input, int segmentSize) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (input == null) {
+            throw new NullPointerException("input");
+        }
+        this.settings = settings;
+        this.reader = new JodaBeanBinReader(settings, sharedTypes);
+        this.buffer = null;
+        this.channel = input;
+        this.segmentSize = segmentSize;
+        try {
+            this.start = input.position();
+            this.length = Math.max(input.size() - start, 0);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        this.segments = new AtomicReferenceArray<>((int) ((length + segmentSize - 1) / segmentSize));
+        this.framed = true;
+        long[] index = readIndex();
+        this.offsets = index != null ? index : scanFrames();
+        this.indexed = index != null;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of beans in the container.
+     *
+     * @return the number of beans
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Checks whether the offsets of the beans were known without scanning the frames.
+     * <p>
+     * This is true if the container has an offset index, or the offsets were specified.
+     * Otherwise, the frames were scanned when the reader was created.
+     *
+     * @return true if the offsets were known without scanning
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Reads and parses the bean with the specified number.
+     *
+     * @param index  the number of the bean, starting from zero
+     * @return the bean, not null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public Bean read(int index) {
+        return read(index, Bean.class);
+    }
+
+    /**
+     * Reads and parses the bean with the specified number.
+     *
+     * @param <T>  the root type
+     * @param index  the number of the bean, starting from zero
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public <T> T read(int index, Class<T> rootType) {
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException("Invalid bean index: " + index);
+        }
+        return reader.read(input(index), rootType);
+    }
+
+    /**
+     * Reads the beans in the container as a stream.
+     * <p>
+     * Each bean is only parsed when requested by the stream.
+     * The stream is sequential, but can be made {@link Stream#parallel() parallel}.
+     * A parallel stream is split into ranges of beans, each decoded by its own reader,
+     * allowing a bulk load to scale with the number of cores.
+     * The encounter order of the beans is the order in the container.
+     * To decode using a specific {@code ForkJoinPool}, run the terminal operation in a task submitted to the pool.
+     *
+     * @param <T>  the root type
+     * @param rootType  the root type, not null
+     * @return the stream of beans, not null
+     */
+    public <T> Stream<T> stream(Class<T> rootType) {
+        if (rootType == null) {
+            throw new NullPointerException("rootType");
+        }
+        return StreamSupport.stream(new BeanSpliterator<>(rootType, 0, offsets.length), false);
+    }
+
+    //-----------------------------------------------------------------------
+    // returns the input for the bean with the specified number
+    private BinaryInput input(int index) {
+        long offset = offsets[index];
+        if (framed) {
+            int frameLength = readFrameHeader(offset);
+            return BinaryInput.of(slice(offset + FRAME_HEADER_SIZE, frameLength));
+        }
+        long end = index + 1 < offsets.length ? offsets[index + 1] : length;
+        return BinaryInput.of(slice(offset, (int) (end - offset)));
+    }
+
+    //-----------------------------------------------------------------------
+    // reads the offsets from the index, null if there is no valid index
+    private long[] readIndex() {
+        if (length < INDEX_HEADER_SIZE + FOOTER_SIZE) {
+            return null;
+        }
+        long footerOffset = length - FOOTER_SIZE;
+        ByteBuffer footer = slice(footerOffset, FOOTER_SIZE);
+        int pos = footer.position();
+        if (footer.get(pos) != (byte) MsgPack.FIX_EXT_8 || footer.get(pos + 1) != MsgPack.JODA_TYPE_INDEX) {
+            return null;
+        }
+        long indexOffset = footer.getLong(pos + 2);
+        if (indexOffset < 0 || indexOffset > footerOffset - INDEX_HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = slice(indexOffset, INDEX_HEADER_SIZE);
+        pos = header.position();
+        int indexLength = header.getInt(pos + 1);
+        if (header.get(pos) != (byte) MsgPack.EXT_32 || header.get(pos + 5) != MsgPack.JODA_TYPE_INDEX ||
+                indexLength % 8 != 0 || indexOffset + INDEX_HEADER_SIZE + indexLength != footerOffset) {
+            return null;
+        }
+        ByteBuffer data = slice(indexOffset + INDEX_HEADER_SIZE, indexLength);
+        pos = data.position();
+        long[] index = new long[indexLength / 8];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = data.getLong(pos + i * 8);
+        }
+        return index;
+    }
+
+    // locates the frames by reading each frame header
+    private long[] scanFrames() {
+        long[] found = new long[16];
+        int count = 0;
+        long offset = 0;
+        while (offset < length) {
+            int frameLength = readFrameHeader(offset);
+            if (count == found.length) {
+                found = Arrays.copyOf(found, count * 2);
+            }
+            found[count++] = offset;
+            offset += FRAME_HEADER_SIZE + frameLength;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    // reads the header of the frame at the offset, returning the length of the frame data
+    private int readFrameHeader(long offset) {
+        if (offset < 0 || offset > length - FRAME_HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid binary data: Frame header out of range at offset " + offset);
+        }
+        ByteBuffer header = slice(offset, FRAME_HEADER_SIZE);
+        int pos = header.position();
+        byte typeByte = header.get(pos);
+        if (typeByte != (byte) MsgPack.BIN_32) {
+            throw new IllegalArgumentException("Invalid binary data: Expected frame, but was: 0x" + MsgPack.toHex(typeByte));
+        }
+        int frameLength = header.getInt(pos + 1);
+        if (frameLength < 0 || frameLength > length - offset - FRAME_HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid binary data: Frame data out of range at offset " + offset);
+        }
+        return frameLength;
+    }
+
+    // returns a buffer over the specified range of the container, with the position at the start of the range
+    private ByteBuffer slice(long offset, int size) {
+        if (buffer != null) {
+            ByteBuffer slice = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+            int pos = (int) (start + offset);
+            slice.limit(pos + size).position(pos);
+            return slice;
+        }
+        try {
+            int segmentIndex = (int) (offset / segmentSize);
+            long segmentStart = (long) segmentIndex * segmentSize;
+            if (offset + size > segmentStart + segmentSize) {
+                // rare case where the range straddles two segments
+                return channel.map(MapMode.READ_ONLY, start + offset, size);
+            }
+            ByteBuffer segment = segments.get(segmentIndex);
+            if (segment == null) {
+                // another thread may map the same segment, in which case the first one wins
+                segment = channel.map(MapMode.READ_ONLY, start + segmentStart, Math.min(segmentSize, length - segmentStart));
+                if (segments.compareAndSet(segmentIndex, null, segment) == false) {
+                    segment = segments.get(segmentIndex);
+                }
+            }
+            ByteBuffer slice = segment.duplicate().order(ByteOrder.BIG_ENDIAN);
+            int pos = (int) (offset - segmentStart);
+            slice.limit(pos + size).position(pos);
+            return slice;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Splits the beans into ranges that can be decoded in parallel.
+     * <p>
+     * A spliterator is only used by one thread at a time, thus each has its own reader.
+     */
+    private final class BeanSpliterator<T> implements Spliterator<T> {
+        private final Class<T> rootType;
+        private int index;
+        private final int fence;
+        private JodaBeanBinReader rangeReader;
+
+        BeanSpliterator(Class<T> rootType, int index, int fence) {
+            this.rootType = rootType;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence) {
+                return false;
+            }
+            if (rangeReader == null) {
+                rangeReader = new JodaBeanBinReader(settings, sharedTypes);
+            }
+            action.accept(rangeReader.read(input(index++), rootType));
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Spliterator<T> prefix = new BeanSpliterator<>(rootType, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+}
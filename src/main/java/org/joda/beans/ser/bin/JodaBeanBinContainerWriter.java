@@ -0,0 +1,213 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.joda.beans.Bean;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides the ability to write a sequence of Joda-Beans to a binary container.
+ * <p>
+ * A container holds a sequence of beans, each of which can be decoded independently.
+ * This is suitable for use as an on-disk event log, where beans are appended over time
+ * and later read back individually, by number or in bulk, using {@link JodaBeanBinContainerReader}.
+ * <p>
+ * Each bean is written as a frame, a MessagePack 'bin 32' whose data is a complete
+ * binary message as written by {@link JodaBeanBinWriter}, including the root type.
+ * As the length of the frame is fixed-size, a reader can move from frame to frame
+ * without decoding the beans.
+ * <p>
+ * When the writer is closed, an optional offset index is written after the last frame.
+ * The index is a MessagePack 'ext 32' of type 35, containing the 8 byte offset of each frame
+ * relative to the start of the container. The container then ends with a MessagePack 'fixext 8'
+ * of type 35, containing the 8 byte offset of the index. The index allows a reader to seek
+ * directly to any bean without scanning the frames.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ *
+ * @author Stephen Colebourne
+ */
+public final class JodaBeanBinContainerWriter implements Closeable, Flushable {
+
+    /**
+     * The size of the header of each frame.
+     */
+    static final int FRAME_HEADER_SIZE = 5;
+    /**
+     * The size of the header of the index.
+     */
+    static final int INDEX_HEADER_SIZE = 6;
+    /**
+     * The size of the footer that refers to the index.
+     */
+    static final int FOOTER_SIZE = 10;
+    /**
+     * The maximum number of beans that can be held in the index.
+     */
+    private static final int MAX_INDEXED = Integer.MAX_VALUE / 8;
+
+    /**
+     * The writer for each bean.
+     */
+    private final JodaBeanBinWriter writer;
+    /**
+     * Whether to write the offset index.
+     */
+    private final boolean writeIndex;
+    /**
+     * The output stream.
+     */
+    private final OutputStream output;
+    /**
+     * The buffer that each frame is written to.
+     */
+    private final BinaryBuffer buffer = new BinaryBuffer();
+    /**
+     * The number of bytes written.
+     */
+    private long position;
+    /**
+     * The offset of each frame, used to write the index.
+     */
+    private long[] offsets = new long[16];
+    /**
+     * The number of beans written.
+     */
+    private int count;
+    /**
+     * Whether the writer has been closed.
+     */
+    private boolean closed;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance writing the standard format with an offset index.
+     *
+     * @param settings  the settings to use, not null
+     * @param output  the output stream, not null
+     */
+    public JodaBeanBinContainerWriter(final JodaBeanSer settings, final OutputStream output) {
+        this(settings, JodaBeanBinFormat.STANDARD, true, output);
+    }
+
+    /**
+     * Creates an instance writing the specified format.
+     * <p>
+     * The offset index can only be written when the writer is closed.
+     * A container that is appended to over a long period, such as an event log,
+     * may prefer to omit the index, in which case the reader scans the frames instead.
+     *
+     * @param settings  the settings to use, not null
+     * @param format  the format to write each bean in, not null
+     * @param writeIndex  true to write the offset index when closed
+     * @param output  the output stream, not null
+     */
+    public JodaBeanBinContainerWriter(final JodaBeanSer settings, final JodaBeanBinFormat format, final boolean writeIndex, final OutputStream output) {
+        if (output == null) {
+            throw new NullPointerException("output");
+        }
+        this.writer = new JodaBeanBinWriter(settings, format);
+        this.writeIndex = writeIndex;
+        this.output = output;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of beans written.
+     *
+     * @return the number of beans written
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes a bean to the container as a new frame.
+     * <p>
+     * The type of the bean will be set in the message.
+     *
+     * @param bean  the bean to output, not null
+     * @return the number of the bean in the container, starting from zero
+     * @throws IOException if an error occurs
+     */
+    public int write(final Bean bean) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Container writer has been closed");
+        }
+        if (count == (writeIndex ? MAX_INDEXED : Integer.MAX_VALUE)) {
+            throw new IllegalStateException("Container is full");
+        }
+        buffer.reset();
+        writer.writeFrame(bean, buffer);
+        buffer.writeTo(output);
+        if (writeIndex) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count] = position;
+        }
+        position += buffer.size();
+        return count++;
+    }
+
+    /**
+     * Flushes the output stream.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Closes the writer, writing the offset index if required and closing the output stream.
+     *
+     * @throws IOException if an error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (writeIndex) {
+                buffer.reset();
+                buffer.ensureCapacity(INDEX_HEADER_SIZE + count * 8 + FOOTER_SIZE);
+                buffer.put(MsgPack.EXT_32);
+                buffer.putInt(count * 8);
+                buffer.put(MsgPack.JODA_TYPE_INDEX);
+                for (int i = 0; i < count; i++) {
+                    buffer.putLong(offsets[i]);
+                }
+                buffer.put(MsgPack.FIX_EXT_8);
+                buffer.put(MsgPack.JODA_TYPE_INDEX);
+                buffer.putLong(position);
+                buffer.writeTo(output);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+import static org.joda.beans.ser.bin.JodaBeanBinContainerWriter.FRAME_HEADER_SIZE;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides the ability for Joda-Beans to be read from a sequence of binary frames that arrives in chunks.
+ * <p>
+ * This reader is fed chunks of bytes as they arrive, such as from a non-blocking
+ * network channel, and never blocks waiting for more input.
+ * When a chunk completes a frame, the bean is parsed and made available to {@link #poll()}.
+ * Each frame is as written by {@link JodaBeanBinWriter#writeFrame(org.joda.beans.Bean, BinaryBuffer)}
+ * or {@link JodaBeanBinContainerWriter}. If the input is a container with an offset index,
+ * the index is ignored.
+ * <p>
+ * As the length of each frame precedes the message, the bytes are not scanned.
+ * Only the bytes of the current frame are retained, so a long sequence of beans
+ * is never held in memory.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ * Once an exception has been thrown, the reader must not be used again.
+ *
+ * @param <T>  the root type
+ * @author Stephen Colebourne
+ */
+public final class JodaBeanBinFeedReader<T> {
+
+    /**
+     * The initial size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The reader for each bean.
+     */
+    private final JodaBeanBinReader reader;
+    /**
+     * The root type.
+     */
+    private final Class<T> rootType;
+    /**
+     * The beans that have been parsed but not yet polled.
+     */
+    private final ArrayDeque<T> beans = new ArrayDeque<>();
+    /**
+     * The bytes of the current frame.
+     */
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    /**
+     * The number of bytes held.
+     */
+    private int size;
+    /**
+     * Whether the offset index has been reached, after which all input is ignored.
+     */
+    private boolean indexReached;
+
+    /**
+     * Creates an instance.
+     *
+     * @param settings  the settings to use, not null
+     * @param rootType  the root type, not null
+     */
+    public JodaBeanBinFeedReader(final JodaBeanSer settings, final Class<T> rootType) {
+        if (rootType == null) {
+            throw new NullPointerException("rootType");
+        }
+        this.reader = new JodaBeanBinReader(settings);
+        this.rootType = rootType;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Feeds a chunk of bytes to the reader.
+     * <p>
+     * The bytes from the position to the limit of the buffer are consumed,
+     * leaving the position at the limit. Any bean completed by the chunk is parsed.
+     *
+     * @param chunk  the chunk of bytes, not null
+     * @return true if at least one bean is available to poll
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public boolean feed(final ByteBuffer chunk) {
+        if (chunk == null) {
+            throw new NullPointerException("chunk");
+        }
+        if (indexReached) {
+            chunk.position(chunk.limit());
+            return isAvailable();
+        }
+        int length = chunk.remaining();
+        if (bytes.length - size < length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+        chunk.get(bytes, size, length);
+        size += length;
+        parseFrames();
+        return isAvailable();
+    }
+
+    /**
+     * Checks if a bean is available to poll.
+     *
+     * @return true if at least one bean is available
+     */
+    public boolean isAvailable() {
+        return beans.isEmpty() == false;
+    }
+
+    /**
+     * Returns the next available bean, removing it from the reader.
+     *
+     * @return the bean, null if no bean is available
+     */
+    public T poll() {
+        return beans.poll();
+    }
+
+    /**
+     * Signals that there is no more input.
+     * <p>
+     * Beans that are available can still be polled.
+     *
+     * @throws IllegalArgumentException if the input ended part way through a frame
+     */
+    public void end() {
+        if (size > 0) {
+            throw new IllegalArgumentException("Invalid binary data: End of input part way through a frame");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // parses each complete frame, retaining the bytes of any incomplete frame
+    private void parseFrames() {
+        int pos = 0;
+        while (size - pos >= FRAME_HEADER_SIZE) {
+            byte typeByte = bytes[pos];
+            if (typeByte == (byte) MsgPack.EXT_32) {
+                // offset index of a container
+                indexReached = true;
+                size = 0;
+                return;
+            }
+            if (typeByte != (byte) MsgPack.BIN_32) {
+                throw new IllegalArgumentException("Invalid binary data: Expected frame, but was: 0x" + MsgPack.toHex(typeByte));
+            }
+            int frameLength = ((bytes[pos + 1] & 0xFF) << 24) | ((bytes[pos + 2] & 0xFF) << 16) |
+                    ((bytes[pos + 3] & 0xFF) << 8) | (bytes[pos + 4] & 0xFF);
+            if (frameLength < 0 || frameLength > Integer.MAX_VALUE - FRAME_HEADER_SIZE) {
+                throw new IllegalArgumentException("Invalid binary data: Frame length out of range: " + frameLength);
+            }
+            if (size - pos - FRAME_HEADER_SIZE < frameLength) {
+                // ensure the whole frame will fit without further copying
+                if (FRAME_HEADER_SIZE + frameLength > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, FRAME_HEADER_SIZE + frameLength);
+                }
+                break;
+            }
+            beans.add(reader.read(ByteBuffer.wrap(bytes, pos + FRAME_HEADER_SIZE, frameLength), rootType));
+            pos += FRAME_HEADER_SIZE + frameLength;
+        }
+        System.arraycopy(bytes, pos, bytes, 0, size - pos);
+        size -= pos;
+    }
+
+}
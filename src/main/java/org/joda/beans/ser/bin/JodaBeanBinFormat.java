@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.bin;
+
+/**
+ * The binary format to write.
+ * <p>
+ * The reader accepts data written in any format.
+ *
+ * @author Stephen Colebourne
+ */
+public enum JodaBeanBinFormat {
+
+    /**
+     * The standard format, version 1.
+     * <p>
+     * Each bean is written as a map keyed by property name.
+     */
+    STANDARD(1),
+    /**
+     * The indexed format, version 2.
+     * <p>
+     * Each bean is written as a map keyed by property name or index.
+     * The first time a property name occurs in the message it is written as a MessagePack
+     * extension holding the name, implicitly assigning it the next index, starting from zero.
+     * Since the definition is self-describing, a reader can collect it even when skipping a value.
+     * Each subsequent occurrence of the same property name is written as that index.
+     * This is much smaller and faster to read when a message contains many beans of the same type.
+     */
+    INDEXED(2);
+
+    /**
+     * The version number written to the data.
+     */
+    private final int version;
+
+    /**
+     * Creates an instance.
+     *
+     * @param version  the version
+     */
+    private JodaBeanBinFormat(int version) {
+        this.version = version;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the version number written to the data.
+     *
+     * @return the version number
+     */
+    public int getVersion() {
+        return version;
+    }
+
+}
@@ -15,15 +15,28 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
+import org.joda.beans.DynamicMetaBean;
 import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
@@ -37,9 +50,11 @@ import org.joda.beans.ser.SerTypeMapper;
  * Provides the ability for a Joda-Bean to read from a binary format.
  * <p>
  * The binary format is defined by {@link JodaBeanBinWriter}.
+ * Data written in any {@link JodaBeanBinFormat format} can be read.
  * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * An instance may be reused for multiple messages, as the state is reset at the start of each message.
+ * Caches of property names and type strings are retained between messages.
  *
  * @author Stephen Colebourne
  */
@@ -52,7 +67,7 @@ public class JodaBeanBinReader extends MsgPack {
     /**
      * The reader.
      */
-    private DataInputStream input;
+    private BinaryInput input;
     /**
      * The base package including the trailing dot.
      */
@@ -61,6 +76,27 @@ public class JodaBeanBinReader extends MsgPack {
      * The known types.
      */
     private Map<String, Class<?>> knownTypes = new HashMap<>();
+    /**
+     * The thread-safe cache of types shared between readers, null if not sharing.
+     * This is keyed by fully-qualified type name, with the known types that the name adds to a message.
+     */
+    private final ConcurrentMap<String, Map<String, Class<?>>> sharedTypes;
+    /**
+     * The cache of type strings and enum constants.
+     */
+    private final BinaryStringCache strings = new BinaryStringCache();
+    /**
+     * The cache of property names, keyed by bean type.
+     */
+    private final Map<Class<?>, BinaryStringCache> propertyNames = new HashMap<>();
+    /**
+     * The version of the data being read.
+     */
+    private int version;
+    /**
+     * The property names in order of first occurrence, used by the indexed format.
+     */
+    private final List<String> propertyNameTable = new ArrayList<>();
 
     //-----------------------------------------------------------------------
     /**
@@ -80,7 +116,18 @@ public class JodaBeanBinReader extends MsgPack {
      * @param settings  the settings, not null
      */
     public JodaBeanBinReader(final JodaBeanSer settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Creates an instance that shares a cache of types with other readers.
+     * 
+     * @param settings  the settings, not null
+     * @param sharedTypes  the thread-safe cache of types, null if not sharing
+     */
+    JodaBeanBinReader(final JodaBeanSer settings, final ConcurrentMap<String, Map<String, Class<?>>> sharedTypes) {
         this.settings = settings;
+        this.sharedTypes = sharedTypes;
     }
 
     //-----------------------------------------------------------------------
@@ -103,7 +150,73 @@ public class JodaBeanBinReader extends MsgPack {
      * @return the bean, not null
      */
     public <T> T read(final byte[] input, Class<T> rootType) {
-        return read(new ByteArrayInputStream(input), rootType);
+        return read(BinaryInput.of(input), rootType);
+    }
+
+    /**
+     * Reads and parses to a bean.
+     * <p>
+     * The data is read from the position of the buffer, without copying.
+     * Heap, direct and memory-mapped buffers are supported.
+     * Once read, the position of the buffer is set to the end of the bean.
+     * 
+     * @param input  the input buffer, not null
+     * @return the bean, not null
+     */
+    public Bean read(final ByteBuffer input) {
+        return read(input, Bean.class);
+    }
+
+    /**
+     * Reads and parses to a bean.
+     * <p>
+     * The data is read from the position of the buffer, without copying.
+     * Heap, direct and memory-mapped buffers are supported.
+     * Once read, the position of the buffer is set to the end of the bean.
+     * 
+     * @param <T>  the root type
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(final ByteBuffer input, Class<T> rootType) {
+        return read(BinaryInput.of(input), rootType);
+    }
+
+    /**
+     * Reads and parses to a bean using memory-mapping.
+     * <p>
+     * The data is read from the position of the channel, without copying.
+     * The file is mapped in segments, allowing files larger than 2Gb to be read.
+     * Once read, the position of the channel is set to the end of the bean.
+     * The channel is not closed.
+     * 
+     * @param input  the input file channel, not null
+     * @return the bean, not null
+     */
+    public Bean read(final FileChannel input) {
+        return read(input, Bean.class);
+    }
+
+    /**
+     * Reads and parses to a bean using memory-mapping.
+     * <p>
+     * The data is read from the position of the channel, without copying.
+     * The file is mapped in segments, allowing files larger than 2Gb to be read.
+     * Once read, the position of the channel is set to the end of the bean.
+     * The channel is not closed.
+     * 
+     * @param <T>  the root type
+     * @param input  the input file channel, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(final FileChannel input, Class<T> rootType) {
+        try {
+            return read(BinaryInput.of(input), rootType);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
@@ -125,11 +238,12 @@ public class JodaBeanBinReader extends MsgPack {
      * @return the bean, not null
      */
     public <T> T read(final InputStream input, Class<T> rootType) {
-        if (input instanceof DataInputStream) {
-            this.input = (DataInputStream) input;
-        } else {
-            this.input = new DataInputStream(input);
-        }
+        return read(BinaryInput.of(input), rootType);
+    }
+
+    // reads from the input, closing it
+    <T> T read(final BinaryInput input, Class<T> rootType) {
+        this.input = input;
         try {
             try {
                 return parseRoot(rootType);
@@ -143,6 +257,192 @@ public class JodaBeanBinReader extends MsgPack {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Reads the elements of a collection property of the root bean as a stream.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The stream must be closed to close the input stream.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input stream, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(final InputStream input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        return readElements(BinaryInput.of(input), rootType, propertyName, elementType);
+    }
+
+    /**
+     * Reads the elements of a collection property of the root bean as a stream.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The data is read from the position of the buffer, without copying.
+     * When the stream is closed, the position of the buffer is set to the end of the data read.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(final ByteBuffer input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        return readElements(BinaryInput.of(input), rootType, propertyName, elementType);
+    }
+
+    /**
+     * Reads the elements of a collection property of the root bean as a stream using memory-mapping.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The data is read from the position of the channel, without copying.
+     * The file is mapped in segments, allowing files larger than 2Gb to be read.
+     * When the stream is closed, the position of the channel is set to the end of the data read.
+     * The channel is not closed.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input file channel, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(final FileChannel input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        try {
+            return readElements(BinaryInput.of(input), rootType, propertyName, elementType);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // reads the elements from the input, closing it when the stream is closed
+    private <T> Stream<T> readElements(final BinaryInput input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        if (propertyName == null) {
+            throw new NullPointerException("propertyName");
+        }
+        if (elementType == null) {
+            throw new NullPointerException("elementType");
+        }
+        this.input = input;
+        try {
+            return parseRootElements(rootType, propertyName, elementType).onClose(() -> {
+                try {
+                    input.close();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (Exception ex) {
+            try {
+                input.close();
+            } catch (IOException ex2) {
+                ex.addSuppressed(ex2);
+            }
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads only the specified properties of the root bean.
+     * <p>
+     * This allows a few properties of a large bean to be read cheaply.
+     * Only the values of the specified properties are parsed, the other properties are skipped.
+     * Reading stops once all the specified properties have been found.
+     * The result contains the value of each specified property that is present in the data,
+     * keyed by the specified meta-property. The bean itself is not built.
+     * 
+     * @param input  the input bytes, not null
+     * @param rootType  the root type, not null
+     * @param properties  the properties of the root bean to read, not null
+     * @return the map of property values, in the order found, not null
+     */
+    public Map<MetaProperty<?>, Object> readProperties(final byte[] input, Class<?> rootType, Set<? extends MetaProperty<?>> properties) {
+        return readProperties(BinaryInput.of(input), rootType, properties);
+    }
+
+    /**
+     * Reads only the specified properties of the root bean.
+     * <p>
+     * This allows a few properties of a large bean to be read cheaply.
+     * Only the values of the specified properties are parsed, the other properties are skipped.
+     * Reading stops once all the specified properties have been found.
+     * The result contains the value of each specified property that is present in the data,
+     * keyed by the specified meta-property. The bean itself is not built.
+     * <p>
+     * The data is read from the position of the buffer, without copying.
+     * Once read, the position of the buffer is set to the end of the data read,
+     * which may be before the end of the bean.
+     * 
+     * @param input  the input buffer, not null
+     * @param rootType  the root type, not null
+     * @param properties  the properties of the root bean to read, not null
+     * @return the map of property values, in the order found, not null
+     */
+    public Map<MetaProperty<?>, Object> readProperties(final ByteBuffer input, Class<?> rootType, Set<? extends MetaProperty<?>> properties) {
+        return readProperties(BinaryInput.of(input), rootType, properties);
+    }
+
+    /**
+     * Reads only the specified properties of the root bean.
+     * <p>
+     * This allows a few properties of a large bean to be read cheaply.
+     * Only the values of the specified properties are parsed, the other properties are skipped.
+     * Reading stops once all the specified properties have been found.
+     * The result contains the value of each specified property that is present in the data,
+     * keyed by the specified meta-property. The bean itself is not built.
+     * 
+     * @param input  the input stream, not null
+     * @param rootType  the root type, not null
+     * @param properties  the properties of the root bean to read, not null
+     * @return the map of property values, in the order found, not null
+     */
+    public Map<MetaProperty<?>, Object> readProperties(final InputStream input, Class<?> rootType, Set<? extends MetaProperty<?>> properties) {
+        return readProperties(BinaryInput.of(input), rootType, properties);
+    }
+
+    // reads the properties from the input, closing it
+    private Map<MetaProperty<?>, Object> readProperties(final BinaryInput input, Class<?> rootType, Set<? extends MetaProperty<?>> properties) {
+        if (rootType == null) {
+            throw new NullPointerException("rootType");
+        }
+        if (properties == null) {
+            throw new NullPointerException("properties");
+        }
+        this.input = input;
+        try {
+            try {
+                return parseRootProperties(rootType, properties);
+            } finally {
+                input.close();
+            }
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses the root bean.
@@ -152,6 +452,14 @@ public class JodaBeanBinReader extends MsgPack {
      * @throws Exception if an error occurs
      */
     private <T> T parseRoot(final Class<T> declaredType) throws Exception {
+        parseRootHeader();
+        // parse
+        Object parsed = parseObject(declaredType, null, null, null, true);
+        return declaredType.cast(parsed);
+    }
+
+    // parses the root array and version
+    private void parseRootHeader() throws Exception {
         // root array
         int typeByte = input.readByte();
         if (typeByte != MIN_FIX_ARRAY + 2) {
@@ -159,12 +467,171 @@ public class JodaBeanBinReader extends MsgPack {
         }
         // version
         typeByte = input.readByte();
-        if (typeByte != 1) {
-            throw new IllegalArgumentException("Invalid binary data: Expected version 1, but was: 0x" + toHex(typeByte));
+        if (typeByte != JodaBeanBinFormat.STANDARD.getVersion() && typeByte != JodaBeanBinFormat.INDEXED.getVersion()) {
+            throw new IllegalArgumentException("Invalid binary data: Expected version 1 or 2, but was: 0x" + toHex(typeByte));
         }
-        // parse
-        Object parsed = parseObject(declaredType, null, null, null, true);
-        return declaredType.cast(parsed);
+        version = typeByte;
+        basePackage = null;
+        knownTypes.clear();
+        propertyNameTable.clear();
+        for (BinaryStringCache names : propertyNames.values()) {
+            names.clearIndexed();
+        }
+    }
+
+    // parses the root bean as far as the specified collection property
+    private <T> Stream<T> parseRootElements(Class<?> declaredType, String propertyName, Class<T> elementType) throws Exception {
+        parseRootHeader();
+        int propertyCount = acceptMap(input.readByte());
+        Class<?> beanType = declaredType;
+        if (propertyCount > 0) {
+            Class<?> typedType = parseRootBeanType(declaredType);
+            if (typedType != null) {
+                beanType = typedType;
+                propertyCount--;
+            }
+        }
+        if (Bean.class.isAssignableFrom(beanType) == false) {
+            throw new IllegalArgumentException("Root type is not a Joda-Bean: " + beanType.getName());
+        }
+        SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
+        MetaBean metaBean = deser.findMetaBean(beanType);
+        BinaryStringCache names = findPropertyNames(beanType, metaBean);
+        for (int i = 0; i < propertyCount; i++) {
+            BinaryStringCache.Entry entry = acceptPropertyName(names);
+            MetaProperty<?> metaProp = resolve(entry, deser, beanType, metaBean);
+            if (metaProp != null && metaProp.name().equals(propertyName)) {
+                return parseElements(metaProp, beanType, elementType);
+            }
+            skipObject();
+        }
+        return Stream.empty();
+    }
+
+    // parses the root bean, extracting the specified properties
+    private Map<MetaProperty<?>, Object> parseRootProperties(
+            Class<?> declaredType,
+            Set<? extends MetaProperty<?>> properties) throws Exception {
+
+        parseRootHeader();
+        int propertyCount = acceptMap(input.readByte());
+        Class<?> beanType = declaredType;
+        if (propertyCount > 0) {
+            Class<?> typedType = parseRootBeanType(declaredType);
+            if (typedType != null) {
+                beanType = typedType;
+                propertyCount--;
+            }
+        }
+        if (Bean.class.isAssignableFrom(beanType) == false) {
+            throw new IllegalArgumentException("Root type is not a Joda-Bean: " + beanType.getName());
+        }
+        Map<String, MetaProperty<?>> requested = new HashMap<>();
+        for (MetaProperty<?> prop : properties) {
+            requested.put(prop.name(), prop);
+        }
+        Map<MetaProperty<?>, Object> result = new LinkedHashMap<>();
+        SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
+        MetaBean metaBean = deser.findMetaBean(beanType);
+        BinaryStringCache names = findPropertyNames(beanType, metaBean);
+        String propName = "";
+        try {
+            for (int i = 0; i < propertyCount && result.size() < requested.size(); i++) {
+                BinaryStringCache.Entry entry = acceptPropertyName(names);
+                propName = entry.string;
+                MetaProperty<?> metaProp = resolve(entry, deser, beanType, metaBean);
+                // the name may be an alias, so match using the name of the resolved property
+                MetaProperty<?> requestedProp = (metaProp != null ? requested.get(metaProp.name()) : null);
+                if (requestedProp != null) {
+                    Object value = parseObject(SerOptional.extractType(metaProp, beanType), metaProp, beanType, null, false);
+                    result.put(requestedProp, SerOptional.wrapValue(metaProp, beanType, value));
+                } else {
+                    skipObject();
+                }
+                propName = "";
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("Error parsing bean: " + beanType.getName() + "::" + propName + ", " + ex.getMessage(), ex);
+        }
+        return result;
+    }
+
+    // parses the type of the root bean if present, returning null if not present
+    private Class<?> parseRootBeanType(Class<?> declaredType) throws Exception {
+        input.mark();
+        if (input.readByte() == EXT_8) {
+            int size = input.readUnsignedByte();
+            if (input.readByte() == JODA_TYPE_BEAN) {
+                String typeStr = input.readString(size, strings).string;
+                Class<?> beanType = decodeType(typeStr);
+                if (declaredType.isAssignableFrom(beanType) == false) {
+                    throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + beanType.getName());
+                }
+                basePackage = beanType.getPackage().getName() + ".";
+                if (input.readByte() != NIL) {
+                    throw new IllegalArgumentException("Invalid binary data: Expected null after bean type");
+                }
+                return beanType;
+            }
+        }
+        input.reset();
+        return null;
+    }
+
+    // skips the next object, collecting the property names it defines in version 2
+    private void skipObject() throws IOException {
+        MsgPackInput.skipObject(input, version == 2 ? propertyNameTable : null);
+    }
+
+    // parses the header of the collection, returning a stream that parses each element when requested
+    private <T> Stream<T> parseElements(MetaProperty<?> metaProp, Class<?> beanType, Class<T> elementType) throws Exception {
+        int typeByte = input.readByte();
+        if (typeByte == NIL) {
+            return Stream.empty();
+        }
+        SerIterable iterable = settings.getIteratorFactory().createIterable(metaProp, beanType);
+        if (iterable != null && iterable.category() == SerCategory.COLLECTION && isMap(typeByte)) {
+            // meta-type written as a size 1 map
+            if (acceptMap(typeByte) != 1 || input.readByte() != EXT_8) {
+                throw new IllegalArgumentException("Invalid binary data: Expected meta-type for collection: " + metaProp.name());
+            }
+            int size = input.readUnsignedByte();
+            if (input.readByte() != JODA_TYPE_META) {
+                throw new IllegalArgumentException("Invalid binary data: Expected meta-type for collection: " + metaProp.name());
+            }
+            String metaType = input.readString(size, strings).string;
+            iterable = settings.getIteratorFactory().createIterable(metaType, settings, knownTypes);
+            typeByte = input.readByte();
+        }
+        if (iterable == null || iterable.category() != SerCategory.COLLECTION) {
+            throw new IllegalArgumentException("Property is not a collection: " + metaProp.name());
+        }
+        SerIterable elementIterable = iterable;
+        int size = acceptArray(typeByte);
+        Iterator<T> iterator = new Iterator<T>() {
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public T next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                try {
+                    return elementType.cast(parseObject(elementIterable.valueType(), null, null, elementIterable, false));
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, size, Spliterator.ORDERED), false);
     }
 
     private Object parseBean(int propertyCount, Class<?> beanType) throws Exception {
@@ -172,13 +639,15 @@ public class JodaBeanBinReader extends MsgPack {
         try {
             SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
             MetaBean metaBean = deser.findMetaBean(beanType);
+            BinaryStringCache names = findPropertyNames(beanType, metaBean);
             BeanBuilder<?> builder = deser.createBuilder(beanType, metaBean);
             for (int i = 0; i < propertyCount; i++) {
                 // property name
-                propName = acceptString(input.readByte());
-                MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+                BinaryStringCache.Entry entry = acceptPropertyName(names);
+                propName = entry.string;
+                MetaProperty<?> metaProp = resolve(entry, deser, beanType, metaBean);
                 if (metaProp == null || metaProp.style().isDerived()) {
-                    MsgPackInput.skipObject(input);
+                    skipObject();
                 } else {
                     Object value = parseObject(SerOptional.extractType(metaProp, beanType), metaProp, beanType, null, false);
                     deser.setValue(builder, metaProp, SerOptional.wrapValue(metaProp, beanType, value));
@@ -191,13 +660,112 @@ public class JodaBeanBinReader extends MsgPack {
         }
     }
 
+    // reads the property name, or the definition or index of a property name in version 2
+    private BinaryStringCache.Entry acceptPropertyName(BinaryStringCache names) throws IOException {
+        int typeByte = input.readByte();
+        BinaryStringCache.Entry entry;
+        if (version == 2) {
+            if (isIntegral(typeByte)) {
+                int index = acceptInteger(typeByte);
+                if (index < 0 || index >= propertyNameTable.size()) {
+                    throw new IllegalArgumentException("Invalid binary data: Unknown property index: " + index);
+                }
+                String name = propertyNameTable.get(index);
+                return names != null ? names.lookup(index, name) : new BinaryStringCache.Entry(null, 0, name);
+            }
+            entry = input.readString(acceptPropertyDefinitionSize(typeByte), names != null ? names : strings);
+            propertyNameTable.add(entry.string);
+        } else {
+            entry = acceptString(typeByte, names != null ? names : strings);
+        }
+        return names != null ? entry : new BinaryStringCache.Entry(null, 0, entry.string);
+    }
+
+    // reads the header of a property name definition in version 2, returning the size of the name
+    private int acceptPropertyDefinitionSize(int typeByte) throws IOException {
+        int size;
+        if (typeByte == EXT_8) {
+            size = input.readUnsignedByte();
+        } else if (typeByte == EXT_16) {
+            size = input.readUnsignedShort();
+        } else if (typeByte == EXT_32) {
+            size = input.readInt();
+            if (size < 0) {
+                throw new IllegalArgumentException("Invalid binary data: Property name too large");
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid binary data: Expected property name, but was: 0x" + toHex(typeByte));
+        }
+        if (input.readByte() != JODA_TYPE_PROPERTY) {
+            throw new IllegalArgumentException("Invalid binary data: Expected property name definition");
+        }
+        return size;
+    }
+
+    // resolves the meta-property of the entry, caching the result
+    private static MetaProperty<?> resolve(BinaryStringCache.Entry entry, SerDeserializer deser, Class<?> beanType, MetaBean metaBean) {
+        if (entry.resolved == false) {
+            entry.metaProperty = deser.findMetaProperty(beanType, metaBean, entry.string);
+            entry.resolved = true;
+        }
+        return entry.metaProperty;
+    }
+
+    // decodes a type, using the shared cache of types if possible
+    private Class<?> decodeType(String typeStr) throws ClassNotFoundException {
+        Class<?> type = findSharedType(typeStr);
+        return type != null ? type : SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+    }
+
+    // finds a fully-qualified type in the shared cache, adding the known types it implies to this message
+    // returns null if not sharing, or if the type string depends on the state of the message
+    private Class<?> findSharedType(String typeStr) {
+        if (sharedTypes == null || knownTypes.containsKey(typeStr) || typeStr.isEmpty() ||
+                (basePackage != null && Character.isUpperCase(typeStr.charAt(0)))) {
+            return null;
+        }
+        Map<String, Class<?>> implied = sharedTypes.get(typeStr);
+        if (implied == null) {
+            // decoding against an empty message yields the known types that the name adds to any message
+            Map<String, Class<?>> decoded = new HashMap<>();
+            try {
+                SerTypeMapper.decodeType(typeStr, settings, null, decoded);
+            } catch (ClassNotFoundException ex) {
+                return null;
+            }
+            sharedTypes.putIfAbsent(typeStr, decoded);
+            implied = decoded;
+        }
+        Class<?> type = implied.get(typeStr);
+        if (type != null) {
+            knownTypes.put(typeStr, type);
+            for (Map.Entry<String, Class<?>> entry : implied.entrySet()) {
+                knownTypes.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        return type;
+    }
+
+    // finds the property name cache, null if the meta-bean is dynamic
+    private BinaryStringCache findPropertyNames(Class<?> beanType, MetaBean metaBean) {
+        if (metaBean instanceof DynamicMetaBean) {
+            return null;
+        }
+        BinaryStringCache names = propertyNames.get(beanType);
+        if (names == null || names.getMetaBean() != metaBean) {
+            names = new BinaryStringCache(metaBean);
+            propertyNames.put(beanType, names);
+        }
+        return names;
+    }
+
     private Object parseObject(Class<?> declaredType, MetaProperty<?> metaProp, Class<?> beanType, SerIterable parentIterable, boolean rootType) throws Exception {
         // establish type
         Class<?> effectiveType = declaredType;
         String metaType = null;
         int typeByte = input.readByte();
         if (isMap(typeByte)) {
-            input.mark(8);
+            input.mark();
             int mapSize = acceptMap(typeByte);
             if (mapSize > 0) {
                 int typeByteTemp = input.readByte();
@@ -205,8 +773,8 @@ public class JodaBeanBinReader extends MsgPack {
                     int size = input.readUnsignedByte();
                     typeByteTemp = input.readByte();
                     if (typeByteTemp == JODA_TYPE_BEAN) {
-                        String typeStr = acceptStringBytes(size);
-                        effectiveType = SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
+                        String typeStr = input.readString(size, strings).string;
+                        effectiveType = decodeType(typeStr);
                         if (rootType) {
                             if (Bean.class.isAssignableFrom(effectiveType) == false) {
                                 throw new IllegalArgumentException("Root type is not a Joda-Bean: " + effectiveType.getName());
@@ -224,8 +792,11 @@ public class JodaBeanBinReader extends MsgPack {
                         if (mapSize != 1) {
                             throw new IllegalArgumentException("Invalid binary data: Expected map size 1, but was: " + mapSize);
                         }
-                        String typeStr = acceptStringBytes(size);
-                        effectiveType = settings.getDeserializers().decodeType(typeStr, settings, basePackage, knownTypes, declaredType);
+                        String typeStr = input.readString(size, strings).string;
+                        effectiveType = findSharedType(typeStr);
+                        if (effectiveType == null) {
+                            effectiveType = settings.getDeserializers().decodeType(typeStr, settings, basePackage, knownTypes, declaredType);
+                        }
                         if (declaredType.isAssignableFrom(effectiveType) == false) {
                             throw new IllegalArgumentException("Specified type is incompatible with declared type: " + declaredType.getName() + " and " + effectiveType.getName());
                         }
@@ -234,7 +805,7 @@ public class JodaBeanBinReader extends MsgPack {
                         if (mapSize != 1) {
                             throw new IllegalArgumentException("Invalid binary data: Expected map size 1, but was: " + mapSize);
                         }
-                        metaType = acceptStringBytes(size);
+                        metaType = input.readString(size, strings).string;
                         typeByte = input.readByte();
                     } else {
                         input.reset();
@@ -363,7 +934,7 @@ public class JodaBeanBinReader extends MsgPack {
 
     private Object parseSimple(int typeByte, Class<?> type) throws Exception {
         if (isString(typeByte)) {
-            String text = acceptString(typeByte);
+            String text = type.isEnum() ? acceptString(typeByte, strings).string : acceptString(typeByte);
             if (type == String.class || type == Object.class) {
                 return text;
             }
@@ -454,6 +1025,14 @@ public class JodaBeanBinReader extends MsgPack {
     }
 
     private String acceptString(int typeByte) throws IOException {
+        return input.readString(acceptStringSize(typeByte));
+    }
+
+    private BinaryStringCache.Entry acceptString(int typeByte, BinaryStringCache cache) throws IOException {
+        return input.readString(acceptStringSize(typeByte), cache);
+    }
+
+    private int acceptStringSize(int typeByte) throws IOException {
         int size;
         if (typeByte >= MIN_FIX_STR && typeByte <= MAX_FIX_STR) {
             size = (typeByte - MIN_FIX_STR);
@@ -469,23 +1048,7 @@ public class JodaBeanBinReader extends MsgPack {
         } else {
             throw new IllegalArgumentException("Invalid binary data: Expected string, but was: 0x" + toHex(typeByte));
         }
-        return acceptStringBytes(size);
-    }
-
-    private String acceptStringBytes(int size) throws IOException {
-        byte[] bytes = new byte[size];
-        input.readFully(bytes);
-        // inline common ASCII case for much better performance
-        char[] chars = new char[size];
-        for (int i = 0; i < size; i++) {
-            byte b = bytes[i];
-            if (b >= 0) {
-                chars[i] = (char) b;
-            } else {
-                return new String(bytes, UTF_8);
-            }
-        }
-        return new String(chars);
+        return size;
     }
 
     private byte[] acceptBinary(int typeByte) throws IOException {
@@ -15,16 +15,20 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.joda.beans.Bean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
+import org.joda.beans.ser.SerIterable;
 import org.joda.beans.ser.SerIterator;
 import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
@@ -33,10 +37,13 @@ import org.joda.beans.ser.SerTypeMapper;
  * Provides the ability for a Joda-Bean to be written to a binary format.
  * <p>
  * This class contains mutable state and cannot be used from multiple threads.
- * A new instance must be created for each message.
+ * An instance may be reused for multiple messages, as the state is reset at the start of each message.
+ * To avoid allocating a new array for each message, write to a {@link BinaryBuffer}.
  * <p>
  * The binary format is based on MessagePack v2.0.
  * Each bean is output as a map using the property name.
+ * The {@link JodaBeanBinFormat#INDEXED indexed} format defines each property name once,
+ * using an integer index for subsequent occurrences.
  * <p>
  * Most simple types, defined by Joda-Convert, are output as MessagePack strings.
  * However, MessagePack nil, boolean, float, integral and bin types are also used
@@ -73,6 +80,10 @@ public class JodaBeanBinWriter {
      * The settings to use.
      */
     private final JodaBeanSer settings;
+    /**
+     * The format to write.
+     */
+    private final JodaBeanBinFormat format;
     /**
      * The output stream.
      */
@@ -85,14 +96,35 @@ public class JodaBeanBinWriter {
      * The known types.
      */
     private Map<Class<?>, String> knownTypes = new HashMap<>();
+    /**
+     * The index of each property name already written, used by the indexed format.
+     */
+    private final Map<String, Integer> propertyIndexes = new HashMap<>();
 
     /**
-     * Creates an instance.
+     * Creates an instance writing the standard format.
      * 
      * @param settings  the settings to use, not null
      */
     public JodaBeanBinWriter(final JodaBeanSer settings) {
+        this(settings, JodaBeanBinFormat.STANDARD);
+    }
+
+    /**
+     * Creates an instance writing the specified format.
+     * 
+     * @param settings  the settings to use, not null
+     * @param format  the format to write, not null
+     */
+    public JodaBeanBinWriter(final JodaBeanSer settings, final JodaBeanBinFormat format) {
+        if (settings == null) {
+            throw new NullPointerException("settings");
+        }
+        if (format == null) {
+            throw new NullPointerException("format");
+        }
         this.settings = settings;
+        this.format = format;
     }
 
     //-----------------------------------------------------------------------
@@ -116,13 +148,76 @@ public class JodaBeanBinWriter {
      * @return the binary data, not null
      */
     public byte[] write(final Bean bean, final boolean rootType) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        BinaryBuffer buffer = new BinaryBuffer();
+        write(bean, rootType, buffer);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes the bean to the buffer.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The data is appended to any data already in the buffer.
+     * 
+     * @param bean  the bean to output, not null
+     * @param buffer  the buffer to write to, not null
+     */
+    public void write(final Bean bean, BinaryBuffer buffer) {
+        write(bean, true, buffer);
+    }
+
+    /**
+     * Writes the bean to the buffer.
+     * <p>
+     * The data is appended to any data already in the buffer.
+     * Callers that reuse a buffer would normally {@link BinaryBuffer#reset() reset} it first.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param buffer  the buffer to write to, not null
+     */
+    public void write(final Bean bean, final boolean rootType, BinaryBuffer buffer) {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        this.output = new MsgPackOutput(buffer);
         try {
-            write(bean, rootType, baos);
+            writeRoot(bean, rootType);
         } catch (IOException ex) {
             throw new IllegalStateException(ex);
         }
-        return baos.toByteArray();
+    }
+
+    /**
+     * Writes the bean to the buffer as a length-prefixed frame.
+     * <p>
+     * The frame is a MessagePack 'bin 32' whose data is a complete message including the root type,
+     * the same as each frame written by {@link JodaBeanBinContainerWriter}.
+     * As the length precedes the message, a sequence of frames arriving in chunks
+     * can be split back into beans without blocking, see {@link JodaBeanBinFeedReader}.
+     * <p>
+     * The data is appended to any data already in the buffer.
+     * 
+     * @param bean  the bean to output, not null
+     * @param buffer  the buffer to write to, not null
+     */
+    public void writeFrame(final Bean bean, BinaryBuffer buffer) {
+        // checked before the header is written, so that the buffer is unchanged on failure
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        int start = buffer.size();
+        buffer.ensureCapacity(JodaBeanBinContainerWriter.FRAME_HEADER_SIZE);
+        buffer.put(MsgPack.BIN_32);
+        buffer.putInt(0);
+        write(bean, true, buffer);
+        buffer.setInt(start + 1, buffer.size() - start - JodaBeanBinContainerWriter.FRAME_HEADER_SIZE);
     }
 
     /**
@@ -155,21 +250,158 @@ public class JodaBeanBinWriter {
         }
         this.output = new MsgPackOutput(output);
         writeRoot(bean, rootType);
+        this.output.flush();
+    }
+
+    /**
+     * Writes the bean to the file channel.
+     * <p>
+     * The type of the bean will be set in the message.
+     * 
+     * @param bean  the bean to output, not null
+     * @param channel  the file channel, open for writing, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, FileChannel channel) throws IOException {
+        write(bean, true, channel);
+    }
+
+    /**
+     * Writes the bean to the file channel.
+     * <p>
+     * The data is written from the current position of the channel, extending the file if necessary.
+     * Once written, the position of the channel is set to the end of the data.
+     * The data is written to the channel in large blocks,
+     * avoiding the intermediate copies made when writing via a stream.
+     * The channel is not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param channel  the file channel, open for writing, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(final Bean bean, final boolean rootType, FileChannel channel) throws IOException {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (channel == null) {
+            throw new NullPointerException("channel");
+        }
+        this.output = new MsgPackOutput(channel);
+        writeRoot(bean, rootType);
+        this.output.flush();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the bean to the buffer, streaming the elements of a collection property.
+     * <p>
+     * This allows a collection that is produced incrementally, such as from a database cursor,
+     * to be written without holding all the elements in memory.
+     * The elements are written as the value of the specified collection property,
+     * which is written after the other properties of the bean.
+     * Any value of the property held by the bean is ignored.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The size of the collection is written once all the elements have been written.
+     * The data can be read by any read method, including {@link JodaBeanBinReader#readElements}.
+     * 
+     * @param bean  the bean to output, not null
+     * @param propertyName  the name of the collection property, such as a list or set, not null
+     * @param elements  the elements of the collection property, not null
+     * @param buffer  the buffer to write to, not null
+     */
+    public void writeElements(final Bean bean, String propertyName, Iterator<?> elements, BinaryBuffer buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("buffer");
+        }
+        MetaProperty<?> streamedProp = findCollectionProperty(bean, propertyName, elements);
+        this.output = new MsgPackOutput(buffer);
+        try {
+            writeRoot(bean, true, streamedProp, elements);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Writes the bean to the channel, streaming the elements of a collection property.
+     * <p>
+     * This allows a collection that is produced incrementally, such as from a database cursor,
+     * to be written in bounded memory. Data is flushed to the channel as it is written.
+     * The elements are written as the value of the specified collection property,
+     * which is written after the other properties of the bean.
+     * Any value of the property held by the bean is ignored.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The data is written from the current position of the channel, such as a {@code FileChannel}.
+     * The size of the collection is patched into the channel once all the elements have been written.
+     * The data can be read by any read method, including {@link JodaBeanBinReader#readElements}.
+     * 
+     * @param bean  the bean to output, not null
+     * @param propertyName  the name of the collection property, such as a list or set, not null
+     * @param elements  the elements of the collection property, not null
+     * @param channel  the channel to write to, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeElements(final Bean bean, String propertyName, Iterator<?> elements, SeekableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new NullPointerException("channel");
+        }
+        MetaProperty<?> streamedProp = findCollectionProperty(bean, propertyName, elements);
+        this.output = new MsgPackOutput(channel);
+        writeRoot(bean, true, streamedProp, elements);
+        this.output.flush();
+    }
+
+    // finds the property to stream, which must be a collection whose elements are written individually
+    private MetaProperty<?> findCollectionProperty(final Bean bean, String propertyName, Iterator<?> elements) {
+        if (bean == null) {
+            throw new NullPointerException("bean");
+        }
+        if (propertyName == null) {
+            throw new NullPointerException("propertyName");
+        }
+        if (elements == null) {
+            throw new NullPointerException("elements");
+        }
+        MetaProperty<?> prop = bean.metaBean().metaProperty(propertyName);
+        SerIterable iterable = settings.getIteratorFactory().createIterable(prop, bean.getClass());
+        if (Collection.class.isAssignableFrom(prop.propertyType()) == false ||
+                iterable == null || iterable.category() != SerCategory.COLLECTION) {
+            throw new IllegalArgumentException("Property is not a collection: " + propertyName);
+        }
+        return prop;
     }
 
     //-----------------------------------------------------------------------
     private void writeRoot(final Bean bean, final boolean rootType) throws IOException {
+        writeRoot(bean, rootType, null, null);
+    }
+
+    private void writeRoot(final Bean bean, final boolean rootType, MetaProperty<?> streamedProp, Iterator<?> elements) throws IOException {
+        basePackage = null;
+        knownTypes.clear();
+        propertyIndexes.clear();
         output.writeArrayHeader(2);
-        output.writeInt(1);  // version 1
-        writeBean(bean, bean.getClass(), rootType ? RootType.ROOT_WITH_TYPE : RootType.ROOT_WITHOUT_TYPE);
+        output.writeInt(format.getVersion());
+        writeBean(bean, bean.getClass(), rootType ? RootType.ROOT_WITH_TYPE : RootType.ROOT_WITHOUT_TYPE, streamedProp, elements);
     }
 
     private void writeBean(final Bean bean, final Class<?> declaredType, RootType rootTypeFlag) throws IOException {
+        writeBean(bean, declaredType, rootTypeFlag, null, null);
+    }
+
+    // the streamed property is written last, using the elements rather than the value in the bean
+    private void writeBean(final Bean bean, final Class<?> declaredType, RootType rootTypeFlag, MetaProperty<?> streamedProp, Iterator<?> elements) throws IOException {
         int count = bean.metaBean().metaPropertyCount();
         MetaProperty<?>[] props = new MetaProperty<?>[count];
         Object[] values = new Object[count];
         int size = 0;
         for (MetaProperty<?> prop : bean.metaBean().metaPropertyIterable()) {
+            if (streamedProp != null && prop.name().equals(streamedProp.name())) {
+                continue;
+            }
             if (prop.style().isSerializable() || (prop.style().isDerived() && settings.isIncludeDerived())) {
                 Object value = SerOptional.extractValue(prop, bean);
                 if (value != null) {
@@ -178,21 +410,22 @@ public class JodaBeanBinWriter {
                 }
             }
         }
+        int mapSize = (streamedProp != null ? size + 1 : size);
         if (rootTypeFlag == RootType.ROOT_WITH_TYPE || (rootTypeFlag == RootType.NOT_ROOT && bean.getClass() != declaredType)) {
             String typeStr = SerTypeMapper.encodeType(bean.getClass(), settings, basePackage, knownTypes);
             if (rootTypeFlag == RootType.ROOT_WITH_TYPE) {
                 basePackage = bean.getClass().getPackage().getName() + ".";
             }
-            output.writeMapHeader(size + 1);
+            output.writeMapHeader(mapSize + 1);
             output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, typeStr);
             output.writeNil();
         } else {
-            output.writeMapHeader(size);
+            output.writeMapHeader(mapSize);
         }
         for (int i = 0; i < size; i++) {
             MetaProperty<?> prop = props[i];
             Object value = values[i];
-            output.writeString(prop.name());
+            writePropertyName(prop.name());
             Class<?> propType = SerOptional.extractType(prop, bean.getClass());
             if (value instanceof Bean) {
                 if (settings.getConverter().isConvertible(value.getClass())) {
@@ -209,6 +442,46 @@ public class JodaBeanBinWriter {
                 }
             }
         }
+        if (streamedProp != null) {
+            writePropertyName(streamedProp.name());
+            writeStreamedElements(bean, streamedProp, elements);
+        }
+    }
+
+    // writes the elements, patching the size of the array once known
+    // the iterator is created from an empty collection of the declared type to match the meta-type
+    private void writeStreamedElements(final Bean bean, MetaProperty<?> prop, Iterator<?> elements) throws IOException {
+        SerIterable iterable = settings.getIteratorFactory().createIterable(prop, bean.getClass());
+        SerIterator itemIterator = settings.getIteratorFactory().create(iterable.build(), prop, bean.getClass());
+        if (itemIterator.metaTypeRequired()) {
+            output.writeMapHeader(1);
+            output.writeExtensionString(MsgPack.JODA_TYPE_META, itemIterator.metaTypeName());
+        }
+        long headerPosition = output.writeArrayHeaderPlaceholder();
+        int size = 0;
+        while (elements.hasNext()) {
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Unable to write more than Integer.MAX_VALUE elements");
+            }
+            writeObject(itemIterator.valueType(), elements.next(), itemIterator);
+            size++;
+        }
+        output.patchArrayHeader(headerPosition, size);
+    }
+
+    // writes the property name, or the definition or index of the name in the indexed format
+    private void writePropertyName(final String name) throws IOException {
+        if (format == JodaBeanBinFormat.INDEXED) {
+            Integer index = propertyIndexes.get(name);
+            if (index != null) {
+                output.writeInt(index.intValue());
+                return;
+            }
+            propertyIndexes.put(name, propertyIndexes.size());
+            output.writeExtensionStringAnyLength(MsgPack.JODA_TYPE_PROPERTY, name);
+            return;
+        }
+        output.writeString(name);
     }
 
     //-----------------------------------------------------------------------
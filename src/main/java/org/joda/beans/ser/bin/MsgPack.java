@@ -201,6 +201,14 @@ abstract class MsgPack {
      * Extension type code for a Joda-Bean meta-type.
      */
     static final int JODA_TYPE_META = 34;
+    /**
+     * Extension type code for the offset index of a Joda-Bean container.
+     */
+    static final int JODA_TYPE_INDEX = 35;
+    /**
+     * Extension type code for the definition of a property name in the indexed format.
+     */
+    static final int JODA_TYPE_PROPERTY = 36;
 
     //-----------------------------------------------------------------------
     /**
@@ -15,10 +15,9 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 /**
  * Receives and processes MsgPack data.
@@ -28,9 +27,9 @@ import java.io.InputStream;
 abstract class MsgPackInput extends MsgPack {
 
     /**
-     * The stream to read.
+     * The input to read.
      */
-    private final DataInputStream input;
+    private final BinaryInput input;
 
     /**
      * Creates an instance.
@@ -38,7 +37,7 @@ abstract class MsgPackInput extends MsgPack {
      * @param bytes  the bytes to read, not null
      */
     MsgPackInput(byte[] bytes) {
-        this(new ByteArrayInputStream(bytes));
+        this(BinaryInput.of(bytes));
     }
 
     /**
@@ -47,16 +46,16 @@ abstract class MsgPackInput extends MsgPack {
      * @param stream  the stream to read from, not null
      */
     MsgPackInput(InputStream stream) {
-        this(new DataInputStream(stream));
+        this(BinaryInput.of(stream));
     }
 
     /**
      * Creates an instance.
      * 
-     * @param stream  the stream to read from, not null
+     * @param input  the input to read from, not null
      */
-    MsgPackInput(DataInputStream stream) {
-        this.input = stream;
+    MsgPackInput(BinaryInput input) {
+        this.input = input;
     }
 
     //-----------------------------------------------------------------------
@@ -243,9 +242,7 @@ abstract class MsgPackInput extends MsgPack {
         if (size < 0) {
             throw new IllegalStateException("String too large");
         }
-        byte[] bytes = new byte[size];
-        input.readFully(bytes);
-        String str = new String(bytes, UTF_8);
+        String str = input.readString(size);
         handleString(str);
     }
 
@@ -342,22 +339,127 @@ abstract class MsgPackInput extends MsgPack {
 
     //-----------------------------------------------------------------------
     /**
-     * Skips over the next object in an input stream.
+     * Skips over the next object in an input.
+     * <p>
+     * This jumps over each value using the lengths in the headers, without decoding
+     * strings, binary or numbers. Arrays and maps are skipped by counting the values
+     * still to be skipped, rather than by recursion.
      * 
-     * @param input  the input stream, not null
+     * @param input  the input, not null
      * @throws IOException if an error occurs
      */
-    public static void skipObject(DataInputStream input) throws IOException {
-        new Skipper(input).skip(input.readByte());
+    static void skipObject(BinaryInput input) throws IOException {
+        skipObject(input, null);
     }
 
-    private static class Skipper extends MsgPackInput {
-        Skipper(DataInputStream input) {
-            super(input);
+    /**
+     * Skips over the next object in an input, collecting the property names it defines.
+     * <p>
+     * In the indexed format, the first occurrence of each property name is written as an extension.
+     * Those names are added to the list in order, as later data refers to them by index.
+     * 
+     * @param input  the input, not null
+     * @param propertyNames  the list to add property name definitions to, null to ignore them
+     * @throws IOException if an error occurs
+     */
+    static void skipObject(BinaryInput input, List<String> propertyNames) throws IOException {
+        long remaining = 1;
+        while (remaining > 0) {
+            remaining--;
+            byte b = input.readByte();
+            if (b >= MIN_FIX_INT) {  // no need to check for b <= MAX_FIX_INT
+                continue;
+            } else if (b >= MIN_FIX_STR && b <= MAX_FIX_STR) {
+                input.skipBytes(b - MIN_FIX_STR);
+            } else if (b >= MIN_FIX_ARRAY && b <= MAX_FIX_ARRAY) {
+                remaining += b - MIN_FIX_ARRAY;
+            } else if (b >= MIN_FIX_MAP && b <= MAX_FIX_MAP) {
+                remaining += 2 * (b - MIN_FIX_MAP);
+            } else {
+                switch ((int) b) {
+                    case UINT_8:
+                    case SINT_8:
+                        input.skipBytes(1);
+                        break;
+                    case UINT_16:
+                    case SINT_16:
+                        input.skipBytes(2);
+                        break;
+                    case FLOAT_32:
+                    case UINT_32:
+                    case SINT_32:
+                        input.skipBytes(4);
+                        break;
+                    case FLOAT_64:
+                    case UINT_64:
+                    case SINT_64:
+                        input.skipBytes(8);
+                        break;
+                    case STR_8:
+                    case BIN_8:
+                        input.skipBytes(input.readUnsignedByte());
+                        break;
+                    case STR_16:
+                    case BIN_16:
+                        input.skipBytes(input.readUnsignedShort());
+                        break;
+                    case STR_32:
+                    case BIN_32:
+                        input.skipBytes(checkSize(input.readInt()));
+                        break;
+                    case FIX_EXT_1:
+                    case FIX_EXT_2:
+                    case FIX_EXT_4:
+                    case FIX_EXT_8:
+                    case FIX_EXT_16:
+                        // the type byte plus the data, which is 1, 2, 4, 8 or 16 bytes
+                        input.skipBytes(1 + (1 << (b - FIX_EXT_1)));
+                        break;
+                    case EXT_8:
+                        skipExtension(input, input.readUnsignedByte(), propertyNames);
+                        break;
+                    case EXT_16:
+                        skipExtension(input, input.readUnsignedShort(), propertyNames);
+                        break;
+                    case EXT_32:
+                        skipExtension(input, checkSize(input.readInt()), propertyNames);
+                        break;
+                    case ARRAY_16:
+                        remaining += input.readUnsignedShort();
+                        break;
+                    case ARRAY_32:
+                        remaining += checkSize(input.readInt());
+                        break;
+                    case MAP_16:
+                        remaining += 2L * input.readUnsignedShort();
+                        break;
+                    case MAP_32:
+                        remaining += 2L * checkSize(input.readInt());
+                        break;
+                    default:
+                        // nil, false, true and unknown are a single byte
+                        break;
+                }
+            }
         }
-        void skip(int typeByte) throws IOException {
-            readObject(typeByte);
+    }
+
+    // skips the type and data of an extension, collecting any property name definition
+    private static void skipExtension(BinaryInput input, int size, List<String> propertyNames) throws IOException {
+        int type = input.readByte();
+        if (propertyNames != null && type == JODA_TYPE_PROPERTY) {
+            propertyNames.add(input.readString(size));
+        } else {
+            input.skipBytes(size);
+        }
+    }
+
+    // checks that a 32 bit size is not too large
+    private static int checkSize(int size) {
+        if (size < 0) {
+            throw new IllegalStateException("Data too large");
         }
+        return size;
     }
 
 }
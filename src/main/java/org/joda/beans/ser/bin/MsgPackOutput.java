@@ -15,21 +15,47 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 
 /**
  * Outputter for MsgPack data.
+ * <p>
+ * Data is written into a {@link BinaryBuffer}.
+ * When writing to a stream or channel, the buffer is flushed whenever it fills.
  *
  * @author Stephen Colebourne
  */
 final class MsgPackOutput extends MsgPack {
 
     /**
-     * The stream to write to.
+     * The size at which the buffer is flushed to the stream.
      */
-    private final DataOutputStream output;
+    private static final int FLUSH_SIZE = 8192;
+    /**
+     * The size at which the buffer is flushed to a file.
+     */
+    private static final int FILE_FLUSH_SIZE = 1024 * 1024;
+
+    /**
+     * The buffer to write to.
+     */
+    private final BinaryBuffer buffer;
+    /**
+     * The stream to flush to, null if not writing to a stream.
+     */
+    private final OutputStream stream;
+    /**
+     * The channel to flush to, null if not writing to a channel.
+     */
+    private final SeekableByteChannel channel;
+    /**
+     * The size at which the buffer is flushed.
+     */
+    private final int flushSize;
 
     /**
      * Creates an instance.
@@ -37,16 +63,133 @@ final class MsgPackOutput extends MsgPack {
      * @param stream  the stream to write to, not null
      */
     MsgPackOutput(OutputStream stream) {
-        this.output = new DataOutputStream(stream);
+        this.buffer = new BinaryBuffer(FLUSH_SIZE);
+        this.stream = stream;
+        this.channel = null;
+        this.flushSize = FLUSH_SIZE;
     }
 
     /**
      * Creates an instance.
      * 
-     * @param stream  the stream to write to, not null
+     * @param buffer  the buffer to write to, not null
+     */
+    MsgPackOutput(BinaryBuffer buffer) {
+        this.buffer = buffer;
+        this.stream = null;
+        this.channel = null;
+        this.flushSize = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates an instance that writes from the current position of the channel.
+     * <p>
+     * Unlike a stream, data written to a channel can be patched.
+     * 
+     * @param channel  the channel to write to, not null
+     */
+    MsgPackOutput(SeekableByteChannel channel) {
+        this.buffer = new BinaryBuffer(FLUSH_SIZE);
+        this.stream = null;
+        this.channel = channel;
+        this.flushSize = FLUSH_SIZE;
+    }
+
+    /**
+     * Creates an instance that writes from the current position of the file channel.
+     * <p>
+     * The data is written to the channel in large blocks, directly from the array of the buffer.
+     * The file is only extended as necessary.
+     * 
+     * @param channel  the channel to write to, not null
+     */
+    MsgPackOutput(FileChannel channel) {
+        this.buffer = new BinaryBuffer(FILE_FLUSH_SIZE);
+        this.stream = null;
+        this.channel = channel;
+        this.flushSize = FILE_FLUSH_SIZE;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Flushes any buffered data to the stream or channel.
+     * <p>
+     * This does nothing if writing only to the buffer.
+     * 
+     * @throws IOException if an error occurs
+     */
+    void flush() throws IOException {
+        if (stream != null) {
+            buffer.writeTo(stream);
+            buffer.reset();
+        } else if (channel != null && buffer.size() > 0) {
+            ByteBuffer bytes = buffer.asByteBuffer();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            buffer.reset();
+        }
+    }
+
+    /**
+     * Writes a MessagePack 32 bit array header with a size of zero, to be patched later.
+     * <p>
+     * This is used when the size of the array is not known until the elements have been written.
+     * 
+     * @return the position of the header, used to patch it
+     * @throws IOException if an error occurs
+     */
+    long writeArrayHeaderPlaceholder() throws IOException {
+        if (stream != null) {
+            throw new IllegalStateException("Unable to patch data written to a stream");
+        }
+        reserve(5);
+        long position = (channel != null ? channel.position() : 0) + buffer.size();
+        buffer.put(ARRAY_32);
+        buffer.putInt(0);
+        return position;
+    }
+
+    /**
+     * Patches the size of an array header written by {@link #writeArrayHeaderPlaceholder()}.
+     * 
+     * @param position  the position of the header
+     * @param size  the size of the array
+     * @throws IOException if an error occurs
      */
-    MsgPackOutput(DataOutputStream stream) {
-        this.output = stream;
+    void patchArrayHeader(long position, int size) throws IOException {
+        long start = (channel != null ? channel.position() : 0);
+        if (position >= start) {
+            // header still in the buffer
+            buffer.setInt((int) (position - start) + 1, size);
+        } else {
+            ByteBuffer bytes = ByteBuffer.allocate(4);
+            bytes.putInt(size).flip();
+            channel.position(position + 1);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.position(start);
+        }
+    }
+
+    // ensures there is space in the buffer, flushing if necessary
+    private void reserve(int required) throws IOException {
+        if (buffer.size() + required > flushSize) {
+            flush();
+        }
+        buffer.ensureCapacity(required);
+    }
+
+    // writes a block of data, bypassing the buffer if the data is large
+    private void writeData(byte[] bytes) throws IOException {
+        if (stream != null && bytes.length > FLUSH_SIZE) {
+            flush();
+            stream.write(bytes);
+        } else {
+            reserve(bytes.length);
+            buffer.put(bytes, 0, bytes.length);
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -56,7 +199,8 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeNil() throws IOException {
-        output.writeByte(NIL);
+        reserve(1);
+        buffer.put(NIL);
     }
 
     /**
@@ -66,10 +210,11 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeBoolean(boolean value) throws IOException {
+        reserve(1);
         if (value) {
-            output.writeByte(TRUE);
+            buffer.put(TRUE);
         } else {
-            output.writeByte(FALSE);
+            buffer.put(FALSE);
         }
     }
 
@@ -80,32 +225,33 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeInt(int value) throws IOException {
+        reserve(5);
         if (value < MIN_FIX_INT) {
             // large negative
             if (value >= Byte.MIN_VALUE) {
-                output.writeByte(SINT_8);
-                output.writeByte((byte) value);
+                buffer.put(SINT_8);
+                buffer.put(value);
             } else if (value >= Short.MIN_VALUE) {
-                output.writeByte(SINT_16);
-                output.writeShort((short) value);
+                buffer.put(SINT_16);
+                buffer.putShort(value);
             } else {
-                output.writeByte(SINT_32);
-                output.writeInt(value);
+                buffer.put(SINT_32);
+                buffer.putInt(value);
             }
         } else if (value < MAX_FIX_INT) {
             // in range -64 to 127
-            output.writeByte(value);
+            buffer.put(value);
         } else {
             // large positive
             if (value < 0xFF) {
-                output.writeByte(UINT_8);
-                output.writeByte((byte) value);
+                buffer.put(UINT_8);
+                buffer.put(value);
             } else if (value < 0xFFFF) {
-                output.writeByte(UINT_16);
-                output.writeShort((short) value);
+                buffer.put(UINT_16);
+                buffer.putShort(value);
             } else {
-                output.writeByte(UINT_32);
-                output.writeInt(value);
+                buffer.put(UINT_32);
+                buffer.putInt(value);
             }
         }
     }
@@ -117,38 +263,39 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeLong(long value) throws IOException {
+        reserve(9);
         if (value < MIN_FIX_INT) {
             // large negative
             if (value >= Byte.MIN_VALUE) {
-                output.writeByte(SINT_8);
-                output.writeByte((byte) value);
+                buffer.put(SINT_8);
+                buffer.put((int) value);
             } else if (value >= Short.MIN_VALUE) {
-                output.writeByte(SINT_16);
-                output.writeShort((short) value);
+                buffer.put(SINT_16);
+                buffer.putShort((int) value);
             } else if (value >= Integer.MIN_VALUE) {
-                output.writeByte(SINT_32);
-                output.writeInt((int) value);
+                buffer.put(SINT_32);
+                buffer.putInt((int) value);
             } else {
-                output.writeByte(SINT_64);
-                output.writeLong(value);
+                buffer.put(SINT_64);
+                buffer.putLong(value);
             }
         } else if (value < MAX_FIX_INT) {
             // in range -64 to 127
-            output.writeByte((byte) value);
+            buffer.put((int) value);
         } else {
             // large positive
             if (value < 0xFF) {
-                output.writeByte(UINT_8);
-                output.writeByte((byte) value);
+                buffer.put(UINT_8);
+                buffer.put((int) value);
             } else if (value < 0xFFFF) {
-                output.writeByte(UINT_16);
-                output.writeShort((short) value);
+                buffer.put(UINT_16);
+                buffer.putShort((int) value);
             } else if (value < 0xFFFFFFFFL) {
-                output.writeByte(UINT_32);
-                output.writeInt((int) value);
+                buffer.put(UINT_32);
+                buffer.putInt((int) value);
             } else {
-                output.writeByte(UINT_64);
-                output.writeLong(value);
+                buffer.put(UINT_64);
+                buffer.putLong(value);
             }
         }
     }
@@ -160,8 +307,9 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeFloat(float value) throws IOException {
-        output.writeByte(FLOAT_32);
-        output.writeFloat(value);
+        reserve(5);
+        buffer.put(FLOAT_32);
+        buffer.putInt(Float.floatToIntBits(value));
     }
 
     /**
@@ -171,8 +319,9 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeDouble(double value) throws IOException {
-        output.writeByte(FLOAT_64);
-        output.writeDouble(value);
+        reserve(9);
+        buffer.put(FLOAT_64);
+        buffer.putLong(Double.doubleToLongBits(value));
     }
 
     /**
@@ -183,17 +332,18 @@ final class MsgPackOutput extends MsgPack {
      */
     void writeBytes(byte[] bytes) throws IOException {
         int size = bytes.length;
+        reserve(5);
         if (size < 256) {
-            output.writeByte(BIN_8);
-            output.writeByte(size);
+            buffer.put(BIN_8);
+            buffer.put(size);
         } else if (size < 65536) {
-            output.writeByte(BIN_16);
-            output.writeShort(size);
+            buffer.put(BIN_16);
+            buffer.putShort(size);
         } else {
-            output.writeByte(BIN_32);
-            output.writeInt(size);
+            buffer.put(BIN_32);
+            buffer.putInt(size);
         }
-        output.write(bytes);
+        writeData(bytes);
     }
 
     /**
@@ -203,36 +353,44 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeString(String value) throws IOException {
-        byte[] bytes = toUTF8(value);
-        int size = bytes.length;
-        if (size < 32) {
-            output.writeByte(MIN_FIX_STR + size);
-        } else if (size < 256) {
-            output.writeByte(STR_8);
-            output.writeByte(size);
-        } else if (size < 65536) {
-            output.writeByte(STR_16);
-            output.writeShort(size);
+        // inline common ASCII case for much better performance
+        final int length = value.length();
+        if (length <= FLUSH_SIZE && isAscii(value, length)) {
+            reserve(length + 5);
+            writeStringHeader(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put(value.charAt(i));
+            }
         } else {
-            output.writeByte(STR_32);
-            output.writeInt(size);
+            byte[] bytes = value.getBytes(UTF_8);
+            reserve(5);
+            writeStringHeader(bytes.length);
+            writeData(bytes);
         }
-        output.write(bytes);
     }
 
-    private byte[] toUTF8(String value) {
-        // inline common ASCII case for much better performance
-        final int size = value.length();
-        byte[] bytes = new byte[size];
-        for (int i = 0; i < size; i++) {
-            char ch = value.charAt(i);
-            if (ch < 128) {
-                bytes[i] = (byte) ch;
-            } else {
-                return value.getBytes(UTF_8);
+    private static boolean isAscii(String value, int length) {
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 128) {
+                return false;
             }
         }
-        return bytes;
+        return true;
+    }
+
+    private void writeStringHeader(int size) {
+        if (size < 32) {
+            buffer.put(MIN_FIX_STR + size);
+        } else if (size < 256) {
+            buffer.put(STR_8);
+            buffer.put(size);
+        } else if (size < 65536) {
+            buffer.put(STR_16);
+            buffer.putShort(size);
+        } else {
+            buffer.put(STR_32);
+            buffer.putInt(size);
+        }
     }
 
     /**
@@ -242,14 +400,15 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeArrayHeader(int size) throws IOException {
+        reserve(5);
         if (size < 16) {
-            output.writeByte(MIN_FIX_ARRAY + size);
+            buffer.put(MIN_FIX_ARRAY + size);
         } else if (size < 65536) {
-            output.writeByte(ARRAY_16);
-            output.writeShort(size);
+            buffer.put(ARRAY_16);
+            buffer.putShort(size);
         } else {
-            output.writeByte(ARRAY_32);
-            output.writeInt(size);
+            buffer.put(ARRAY_32);
+            buffer.putInt(size);
         }
     }
 
@@ -260,14 +419,15 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeMapHeader(int size) throws IOException {
+        reserve(5);
         if (size < 16) {
-            output.writeByte(MIN_FIX_MAP + size);
+            buffer.put(MIN_FIX_MAP + size);
         } else if (size < 65536) {
-            output.writeByte(MAP_16);
-            output.writeShort(size);
+            buffer.put(MAP_16);
+            buffer.putShort(size);
         } else {
-            output.writeByte(MAP_32);
-            output.writeInt(size);
+            buffer.put(MAP_32);
+            buffer.putInt(size);
         }
     }
 
@@ -279,9 +439,34 @@ final class MsgPackOutput extends MsgPack {
      * @throws IOException if an error occurs
      */
     void writeExtensionByte(int extensionType, int value) throws IOException {
-        output.write(FIX_EXT_1);
-        output.write(extensionType);
-        output.write(value);
+        reserve(3);
+        buffer.put(FIX_EXT_1);
+        buffer.put(extensionType);
+        buffer.put(value);
+    }
+
+    /**
+     * Writes an extension string of any length using EXT_8, EXT_16 or EXT_32.
+     * 
+     * @param extensionType  the type
+     * @param str  the string to write as the data
+     * @throws IOException if an error occurs
+     */
+    void writeExtensionStringAnyLength(int extensionType, String str) throws IOException {
+        byte[] bytes = str.getBytes(UTF_8);
+        reserve(6);
+        if (bytes.length < 256) {
+            buffer.put(EXT_8);
+            buffer.put(bytes.length);
+        } else if (bytes.length < 65536) {
+            buffer.put(EXT_16);
+            buffer.putShort(bytes.length);
+        } else {
+            buffer.put(EXT_32);
+            buffer.putInt(bytes.length);
+        }
+        buffer.put(extensionType);
+        writeData(bytes);
     }
 
     /**
@@ -296,10 +481,11 @@ final class MsgPackOutput extends MsgPack {
         if (bytes.length > 256) {
             throw new IllegalArgumentException("String too long");
         }
-        output.write(EXT_8);
-        output.write(bytes.length);
-        output.write(extensionType);
-        output.write(bytes);
+        reserve(bytes.length + 3);
+        buffer.put(EXT_8);
+        buffer.put(bytes.length);
+        buffer.put(extensionType);
+        buffer.put(bytes, 0, bytes.length);
     }
 
 }
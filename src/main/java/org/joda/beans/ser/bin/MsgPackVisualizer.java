@@ -15,7 +15,6 @@
  */
 package org.joda.beans.ser.bin;
 
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -56,10 +55,10 @@ final class MsgPackVisualizer extends MsgPackInput {
     /**
      * Creates an instance.
      * 
-     * @param stream  the stream to read from, not null
+     * @param input  the input to read from, not null
      */
-    MsgPackVisualizer(DataInputStream stream) {
-        super(stream);
+    MsgPackVisualizer(BinaryInput input) {
+        super(input);
     }
 
     //-----------------------------------------------------------------------
@@ -165,7 +164,7 @@ final class MsgPackVisualizer extends MsgPackInput {
 
     @Override
     protected void handleExtension(int type, byte[] bytes) throws IOException {
-        if (type == JODA_TYPE_BEAN || type == JODA_TYPE_DATA || type == JODA_TYPE_META) {
+        if (type == JODA_TYPE_BEAN || type == JODA_TYPE_DATA || type == JODA_TYPE_META || type == JODA_TYPE_PROPERTY) {
             String str = new String(bytes, UTF_8);
             buf.append("ext type=" + type + " '" + str + "'").append(System.lineSeparator());
         } else {
@@ -20,8 +20,20 @@ import static org.joda.beans.ser.json.JodaBeanJsonWriter.META;
 import static org.joda.beans.ser.json.JodaBeanJsonWriter.TYPE;
 import static org.joda.beans.ser.json.JodaBeanJsonWriter.VALUE;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
@@ -87,6 +99,259 @@ abstract class AbstractJsonReader {
         return declaredType.cast(parsed);
     }
 
+    /**
+     * Parses the elements of a collection property of the root bean as a stream.
+     * <p>
+     * The source is closed when the stream is closed, or if parsing the root fails.
+     * 
+     * @param input  the JSON input
+     * @param source  the source of the input, closed when the stream is closed
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    <T> Stream<T> parseRootElements(
+            JsonInput input,
+            Closeable source,
+            Class<?> rootType,
+            String propertyName,
+            Class<T> elementType) {
+
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(propertyName, "propertyName");
+        JodaBeanUtils.notNull(elementType, "elementType");
+        try {
+            this.input = input;
+            Iterator<T> iterator = parseRootElements(rootType, propertyName, elementType);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(() -> {
+                        try {
+                            source.close();
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    });
+        } catch (Exception ex) {
+            try {
+                source.close();
+            } catch (IOException ex2) {
+                ex.addSuppressed(ex2);
+            }
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Parses the specified properties of the root bean.
+     * <p>
+     * Only the values of the specified properties are parsed, with all other properties skipped.
+     * Parsing stops once all the specified properties have been found.
+     * 
+     * @param input  the JSON input
+     * @param rootType  the root type, not null
+     * @param properties  the properties to parse, not null
+     * @return the map of property to value, in the order found in the input, not null
+     * @throws Exception if an error occurs
+     */
+    Map<MetaProperty<?>, Object> parseRootProperties(
+            JsonInput input,
+            Class<?> rootType,
+            Set<? extends MetaProperty<?>> properties) throws Exception {
+
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(properties, "properties");
+        this.input = input;
+        input.acceptEvent(JsonEvent.OBJECT);
+        Class<?> beanType = parseRootBeanType(rootType);
+        Map<String, MetaProperty<?>> requested = new HashMap<>();
+        for (MetaProperty<?> prop : properties) {
+            requested.put(prop.name(), prop);
+        }
+        Map<MetaProperty<?>, Object> result = new LinkedHashMap<>();
+        SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
+        MetaBean metaBean = deser.findMetaBean(beanType);
+        String propName = "";
+        try {
+            JsonEvent event = input.readEvent();
+            while (event != JsonEvent.OBJECT_END && result.size() < requested.size()) {
+                propName = input.acceptObjectKey(event);
+                MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+                // the name may be an alias, so match using the name of the resolved property
+                MetaProperty<?> requestedProp = (metaProp != null ? requested.get(metaProp.name()) : null);
+                if (requestedProp != null) {
+                    Object value = parseObject(input.readEvent(),
+                            SerOptional.extractType(metaProp, beanType), metaProp, beanType, null, false);
+                    result.put(requestedProp, SerOptional.wrapValue(metaProp, beanType, value));
+                } else {
+                    input.skipData();
+                }
+                propName = "";
+                event = input.acceptObjectSeparator();
+            }
+        } catch (Exception ex) {
+            throw new IllegalArgumentException(
+                    "Error parsing bean: " + beanType.getName() + "::" + propName + ", " + ex.getMessage(), ex);
+        }
+        return result;
+    }
+
+    /**
+     * Parses the type of the root bean.
+     * <p>
+     * The input must contain a JSON object with no properties other than the type.
+     * 
+     * @param input  the JSON input
+     * @param declaredType  the declared type, not null
+     * @return the type of the root bean, not null
+     * @throws Exception if an error occurs
+     */
+    Class<?> parseRootType(JsonInput input, Class<?> declaredType) throws Exception {
+        this.input = input;
+        input.acceptEvent(JsonEvent.OBJECT);
+        return parseRootBeanType(declaredType);
+    }
+
+    /**
+     * Parses the start of the value of a collection property, up to and including the start of the array.
+     * 
+     * @param input  the JSON input
+     * @param metaProp  the collection property, not null
+     * @param beanType  the type of the bean declaring the property, not null
+     * @return the iterable defining the type of the elements, not null
+     * @throws Exception if an error occurs
+     */
+    SerIterable parseElementsStart(JsonInput input, MetaProperty<?> metaProp, Class<?> beanType) throws Exception {
+        this.input = input;
+        return parseElementsStart(input.readEvent(), metaProp, beanType);
+    }
+
+    /**
+     * Parses a single element of a collection.
+     * 
+     * @param input  the JSON input
+     * @param iterable  the iterable returned by {@link #parseElementsStart}, not null
+     * @return the element, may be null
+     * @throws Exception if an error occurs
+     */
+    Object parseElement(JsonInput input, SerIterable iterable) throws Exception {
+        this.input = input;
+        return parseObject(input.readEvent(), iterable.valueType(), null, null, iterable, false);
+    }
+
+    // parses the root bean as far as the specified collection property
+    private <T> Iterator<T> parseRootElements(Class<?> declaredType, String propertyName, Class<T> elementType) throws Exception {
+        input.acceptEvent(JsonEvent.OBJECT);
+        Class<?> beanType = parseRootBeanType(declaredType);
+        SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
+        MetaBean metaBean = deser.findMetaBean(beanType);
+        JsonEvent event = input.readEvent();
+        while (event != JsonEvent.OBJECT_END) {
+            String propName = input.acceptObjectKey(event);
+            MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
+            if (metaProp != null && metaProp.name().equals(propertyName)) {
+                return parseElements(input.readEvent(), metaProp, beanType, elementType);
+            }
+            input.skipData();
+            event = input.acceptObjectSeparator();
+        }
+        return Collections.emptyIterator();
+    }
+
+    // parses the type of the root bean if present, object start already consumed
+    // the next event read is the first property or the end of the object
+    private Class<?> parseRootBeanType(Class<?> declaredType) throws Exception {
+        Class<?> beanType = declaredType;
+        JsonEvent event = input.readEvent();
+        if (event == JsonEvent.STRING) {
+            String key = input.parseObjectKey();
+            if (key.equals(BEAN)) {
+                beanType = parseBeanType(declaredType, true);
+                event = input.readEvent();
+                if (event != JsonEvent.COMMA) {
+                    input.ensureEvent(event, JsonEvent.OBJECT_END);
+                    input.pushBack('}');
+                }
+            } else {
+                input.pushBack('"');
+                input.pushBackObjectKey(key);
+            }
+        } else {
+            input.ensureEvent(event, JsonEvent.OBJECT_END);
+            input.pushBack('}');
+        }
+        if (Bean.class.isAssignableFrom(beanType) == false) {
+            throw new IllegalArgumentException("Root type is not a Joda-Bean: " + beanType.getName());
+        }
+        return beanType;
+    }
+
+    // parses the start of the collection, returning an iterator that parses each element when requested
+    private <T> Iterator<T> parseElements(
+            JsonEvent event,
+            MetaProperty<?> metaProp,
+            Class<?> beanType,
+            Class<T> elementType) throws Exception {
+
+        if (event == JsonEvent.NULL) {
+            return Collections.emptyIterator();
+        }
+        SerIterable elementIterable = parseElementsStart(event, metaProp, beanType);
+        JsonEvent first = input.readEvent();
+        return new Iterator<T>() {
+            private JsonEvent next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next != JsonEvent.ARRAY_END;
+            }
+
+            @Override
+            public T next() {
+                if (next == JsonEvent.ARRAY_END) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Object value = parseObject(next, elementIterable.valueType(), null, null, elementIterable, false);
+                    next = input.acceptArraySeparator();
+                    return elementType.cast(value);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+    }
+
+    // parses the start of the collection, up to and including the start of the array, event passed in
+    private SerIterable parseElementsStart(JsonEvent event, MetaProperty<?> metaProp, Class<?> beanType) throws Exception {
+        SerIterable iterable = settings.getIteratorFactory().createIterable(metaProp, beanType, true);
+        if (event == JsonEvent.OBJECT) {
+            // meta-type written as an object wrapping the array
+            String metaKey = input.acceptObjectKey(input.readEvent());
+            if (metaKey.equals(META) == false) {
+                throw new IllegalArgumentException("Invalid JSON data: Expected meta-type for collection: " + metaProp.name());
+            }
+            String metaType = input.acceptString();
+            iterable = settings.getIteratorFactory().createIterable(metaType, settings, knownTypes);
+            input.acceptEvent(JsonEvent.COMMA);
+            String valueKey = input.acceptObjectKey(input.readEvent());
+            if (valueKey.equals(VALUE) == false) {
+                throw new IllegalArgumentException("Invalid JSON data: Expected 'value' key but found " + valueKey);
+            }
+            event = input.readEvent();
+        }
+        if (iterable == null || iterable.category() != SerCategory.COLLECTION) {
+            throw new IllegalArgumentException("Property is not a collection: " + metaProp.name());
+        }
+        input.ensureEvent(event, JsonEvent.ARRAY);
+        return iterable;
+    }
+
     // parse a bean, event after object start passed in
     private Object parseBean(JsonEvent event, Class<?> beanType) throws Exception {
         String propName = "";
@@ -188,6 +453,16 @@ abstract class AbstractJsonReader {
     }
 
     private Object parseTypedBean(Class<?> declaredType, boolean rootType) throws Exception {
+        Class<?> effectiveType = parseBeanType(declaredType, rootType);
+        JsonEvent event = input.readEvent();
+        if (event == JsonEvent.COMMA) {
+            event = input.readEvent();
+        }
+        return parseBean(event, effectiveType);
+    }
+
+    // parses the type of a bean, the value of the '@bean' key
+    private Class<?> parseBeanType(Class<?> declaredType, boolean rootType) throws Exception {
         String typeStr = input.acceptString();
         Class<?> effectiveType = SerTypeMapper.decodeType(typeStr, settings, basePackage, knownTypes);
         if (rootType) {
@@ -200,11 +475,7 @@ abstract class AbstractJsonReader {
             throw new IllegalArgumentException("Specified type is incompatible with declared type: " +
                 declaredType.getName() + " and " + effectiveType.getName());
         }
-        JsonEvent event = input.readEvent();
-        if (event == JsonEvent.COMMA) {
-            event = input.readEvent();
-        }
-        return parseBean(event, effectiveType);
+        return effectiveType;
     }
 
     private Object parseTypedSimple(Class<?> declaredType) throws Exception {
@@ -0,0 +1,485 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.json;
+
+import static org.joda.beans.ser.json.JodaBeanJsonWriter.BEAN;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
+import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerDeserializer;
+import org.joda.beans.ser.SerIterable;
+
+/**
+ * Provides the ability for the elements of a collection property of a Joda-Bean
+ * to be read from JSON that arrives in chunks.
+ * <p>
+ * This is the non-blocking equivalent of {@link JodaBeanJsonReader#readElements}.
+ * The reader is fed chunks of UTF-8 bytes as they arrive, such as from a non-blocking
+ * network channel, and never blocks waiting for more input.
+ * The input must be a single root bean as defined by {@link JodaBeanJsonWriter}.
+ * When a chunk completes an element of the collection property, the element is parsed
+ * and made available to {@link #poll()}, before the rest of the root bean has arrived.
+ * <p>
+ * The other properties of the root bean are skipped without being retained.
+ * Only the bytes of the current element are retained, so memory use is proportional
+ * to the size of the largest element, not the size of the root bean.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ * Once an exception has been thrown, the reader must not be used again.
+ *
+ * @param <T>  the element type
+ */
+public final class JodaBeanJsonElementFeedReader<T> {
+
+    /**
+     * The initial size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * Scan state, before the root bean.
+     */
+    private static final int BEFORE_ROOT = 0;
+    /**
+     * Scan state, expecting a property name of the root bean or the end of the root bean.
+     */
+    private static final int KEY = 1;
+    /**
+     * Scan state, expecting the colon after a property name of the root bean.
+     */
+    private static final int COLON = 2;
+    /**
+     * Scan state, within the type of the root bean.
+     */
+    private static final int TYPE = 3;
+    /**
+     * Scan state, within a property value of the root bean that is skipped.
+     */
+    private static final int SKIP = 4;
+    /**
+     * Scan state, within the start of the collection, before the start of the array.
+     */
+    private static final int ELEMENTS_START = 5;
+    /**
+     * Scan state, within the array of elements.
+     */
+    private static final int ELEMENTS = 6;
+    /**
+     * Scan state, after the root bean.
+     */
+    private static final int AFTER_ROOT = 7;
+
+    /**
+     * The settings to use.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The declared type of the root bean.
+     */
+    private final Class<?> rootType;
+    /**
+     * The name of the collection property.
+     */
+    private final String propertyName;
+    /**
+     * The element type.
+     */
+    private final Class<T> elementType;
+    /**
+     * The reader used to parse each part of the input.
+     */
+    private final JodaBeanJsonReader reader;
+    /**
+     * The elements that have been parsed but not yet polled, a linked list as elements may be null.
+     */
+    private final Deque<T> elements = new LinkedList<>();
+    /**
+     * The retained bytes.
+     */
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    /**
+     * The number of bytes held.
+     */
+    private int size;
+    /**
+     * The index of the start of the bytes being captured, -1 if none.
+     */
+    private int mark = -1;
+    /**
+     * The index of the start of the property name being captured, -1 if none.
+     */
+    private int keyStart = -1;
+    /**
+     * The scan state.
+     */
+    private int state = BEFORE_ROOT;
+    /**
+     * The scan state to use after the colon.
+     */
+    private int valueState;
+    /**
+     * The nesting depth of objects and arrays.
+     */
+    private int depth;
+    /**
+     * The nesting depth of the elements.
+     */
+    private int elementsDepth;
+    /**
+     * Whether a comma has been found since the last element.
+     */
+    private boolean separated;
+    /**
+     * Whether the scan is within a string.
+     */
+    private boolean inString;
+    /**
+     * Whether the previous byte was an escape within a string.
+     */
+    private boolean escape;
+    /**
+     * The deserializer of the root bean, null until the type is known.
+     */
+    private SerDeserializer deser;
+    /**
+     * The type of the root bean, null until known.
+     */
+    private Class<?> beanType;
+    /**
+     * The meta-bean of the root bean, null until the type is known.
+     */
+    private MetaBean metaBean;
+    /**
+     * The collection property, null until found.
+     */
+    private MetaProperty<?> metaProp;
+    /**
+     * The iterable defining the type of the elements, null until the array starts.
+     */
+    private SerIterable iterable;
+
+    /**
+     * Creates an instance.
+     *
+     * @param settings  the settings, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     */
+    public JodaBeanJsonElementFeedReader(JodaBeanSer settings, Class<?> rootType, String propertyName, Class<T> elementType) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        JodaBeanUtils.notNull(propertyName, "propertyName");
+        JodaBeanUtils.notNull(elementType, "elementType");
+        this.settings = settings;
+        this.rootType = rootType;
+        this.propertyName = propertyName;
+        this.elementType = elementType;
+        this.reader = new JodaBeanJsonReader(settings);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Feeds a chunk of UTF-8 bytes to the reader.
+     * <p>
+     * The bytes from the position to the limit of the buffer are consumed,
+     * leaving the position at the limit. Any element completed by the chunk is parsed.
+     * A multi-byte character may be split across chunks.
+     *
+     * @param chunk  the chunk of bytes, not null
+     * @return true if at least one element is available to poll
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public boolean feed(ByteBuffer chunk) {
+        JodaBeanUtils.notNull(chunk, "chunk");
+        int length = chunk.remaining();
+        if (bytes.length - size < length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+        int scanFrom = size;
+        chunk.get(bytes, size, length);
+        size += length;
+        scan(scanFrom);
+        return isAvailable();
+    }
+
+    /**
+     * Checks if an element is available to poll.
+     *
+     * @return true if at least one element is available
+     */
+    public boolean isAvailable() {
+        return elements.isEmpty() == false;
+    }
+
+    /**
+     * Returns the next available element, removing it from the reader.
+     * <p>
+     * A null element in the input cannot be distinguished from no element being available,
+     * use {@link #isAvailable()} to check first if the collection may contain nulls.
+     *
+     * @return the element, null if no element is available
+     */
+    public T poll() {
+        return elements.poll();
+    }
+
+    /**
+     * Signals that there is no more input.
+     * <p>
+     * Elements that are available can still be polled.
+     *
+     * @throws IllegalArgumentException if the input ended before the end of the root bean
+     */
+    public void end() {
+        if (state != AFTER_ROOT) {
+            throw new IllegalArgumentException("Invalid JSON data: End of input before the end of the root bean");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // scans the new bytes, parsing the type, the start of the collection and each element when complete
+    private void scan(int from) {
+        for (int i = from; i < size; i++) {
+            byte b = bytes[i];
+            if (inString) {
+                // multi-byte UTF-8 sequences never contain ASCII bytes
+                if (escape) {
+                    escape = false;
+                } else if (b == '\\') {
+                    escape = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (state == KEY) {
+                        acceptKey(i);
+                    }
+                }
+                continue;
+            }
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                continue;
+            }
+            switch (state) {
+                case BEFORE_ROOT:
+                    if (b != '{') {
+                        throw new IllegalArgumentException("Invalid JSON data: Expected JSON object but found '" + (char) (b & 0xFF) + "'");
+                    }
+                    mark = i;
+                    depth = 1;
+                    state = KEY;
+                    break;
+                case KEY:
+                    if (b == '"') {
+                        keyStart = i;
+                        inString = true;
+                    } else if (b == '}') {
+                        acceptRootEnd();
+                    } else {
+                        throw new IllegalArgumentException("Invalid JSON data: Expected property name but found '" + (char) (b & 0xFF) + "'");
+                    }
+                    break;
+                case COLON:
+                    if (b != ':') {
+                        throw new IllegalArgumentException("Invalid JSON data: Expected ':' but found '" + (char) (b & 0xFF) + "'");
+                    }
+                    state = valueState;
+                    break;
+                case TYPE:
+                case SKIP:
+                    skip(i, b);
+                    break;
+                case ELEMENTS_START:
+                    acceptElementsStart(i, b);
+                    break;
+                case ELEMENTS:
+                    acceptElements(i, b);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid JSON data: Expected end of input but found '" + (char) (b & 0xFF) + "'");
+            }
+        }
+        // retain only the bytes being captured
+        int keep = (mark >= 0 ? mark : keyStart);
+        if (keep < 0) {
+            size = 0;
+            if (bytes.length > BUFFER_SIZE) {
+                bytes = new byte[BUFFER_SIZE];
+            }
+        } else if (keep > 0) {
+            System.arraycopy(bytes, keep, bytes, 0, size - keep);
+            size -= keep;
+            mark = (mark >= 0 ? mark - keep : -1);
+            keyStart = (keyStart >= 0 ? keyStart - keep : -1);
+        }
+    }
+
+    // a property name of the root bean has been captured, ending at the specified closing quote
+    private void acceptKey(int end) {
+        String key = parse(() -> new JsonInput(bytes, keyStart, end + 1 - keyStart).acceptString());
+        keyStart = -1;
+        state = COLON;
+        if (beanType == null) {
+            if (key.equals(BEAN)) {
+                valueState = TYPE;
+                return;
+            }
+            acceptRootType("{}".getBytes(StandardCharsets.UTF_8));
+        }
+        MetaProperty<?> found = deser.findMetaProperty(beanType, metaBean, key);
+        // the name may be an alias, so match using the name of the resolved property
+        if (found != null && found.name().equals(propertyName)) {
+            metaProp = found;
+            valueState = ELEMENTS_START;
+        } else {
+            valueState = SKIP;
+        }
+    }
+
+    // a value of the root bean is being skipped, or the type is being captured
+    private void skip(int i, byte b) {
+        if (depth == 1 && (b == ',' || b == '}')) {
+            if (state == TYPE) {
+                // the captured bytes are the start of the root object, closed to contain only the type
+                byte[] typeBytes = Arrays.copyOfRange(bytes, mark, i + 1);
+                typeBytes[typeBytes.length - 1] = '}';
+                acceptRootType(typeBytes);
+            }
+            if (b == ',') {
+                state = KEY;
+            } else {
+                acceptRootEnd();
+            }
+        } else if (b == '"') {
+            inString = true;
+        } else if (b == '{' || b == '[') {
+            depth++;
+        } else if (b == '}' || b == ']') {
+            depth--;
+        }
+    }
+
+    // the start of the collection is being captured, up to and including the start of the array
+    private void acceptElementsStart(int i, byte b) {
+        if (mark < 0) {
+            if (b == 'n') {
+                // null collection, no elements
+                state = SKIP;
+                return;
+            }
+            if (b != '[' && b != '{') {
+                throw new IllegalArgumentException("Invalid JSON data: Expected collection but found '" + (char) (b & 0xFF) + "'");
+            }
+            mark = i;
+        }
+        if (b == '"') {
+            inString = true;
+        } else if (b == '{' && depth == 1) {
+            // meta-type written as an object wrapping the array
+            depth++;
+        } else if (b == '{' || b == '}' || b == '[' || b == ']') {
+            // the array, or invalid data that is rejected when parsed
+            int start = mark;
+            iterable = parse(() -> reader.parseElementsStart(new JsonInput(bytes, start, i + 1 - start), metaProp, beanType));
+            if (b != '[') {
+                throw new IllegalArgumentException("Invalid JSON data: Expected array for collection: " + metaProp.name());
+            }
+            depth++;
+            elementsDepth = depth;
+            separated = false;
+            mark = -1;
+            state = ELEMENTS;
+        }
+    }
+
+    // the elements are being captured, each one parsed when complete
+    private void acceptElements(int i, byte b) {
+        if (depth == elementsDepth) {
+            if (b == ',' || b == ']') {
+                if (mark >= 0) {
+                    // the separator is included, ending any number
+                    int start = mark;
+                    Object element = parse(() -> reader.parseElement(new JsonInput(bytes, start, i + 1 - start), iterable));
+                    elements.add(elementType.cast(element));
+                    mark = -1;
+                } else if (separated || b == ',') {
+                    throw new IllegalArgumentException("Invalid JSON data: Expected collection element but found '" + (char) (b & 0xFF) + "'");
+                }
+                separated = (b == ',');
+                if (b == ']') {
+                    depth--;
+                    state = SKIP;
+                }
+                return;
+            }
+            if (mark < 0) {
+                mark = i;
+            }
+        }
+        if (b == '"') {
+            inString = true;
+        } else if (b == '{' || b == '[') {
+            depth++;
+        } else if (b == '}' || b == ']') {
+            depth--;
+        }
+    }
+
+    // parses the type of the root bean
+    private void acceptRootType(byte[] typeBytes) {
+        beanType = parse(() -> reader.parseRootType(new JsonInput(typeBytes), rootType));
+        deser = settings.getDeserializers().findDeserializer(beanType);
+        metaBean = deser.findMetaBean(beanType);
+        mark = -1;
+    }
+
+    // the end of the root bean
+    private void acceptRootEnd() {
+        if (beanType == null) {
+            acceptRootType("{}".getBytes(StandardCharsets.UTF_8));
+        }
+        depth = 0;
+        state = AFTER_ROOT;
+    }
+
+    // parses using the reader, wrapping checked exceptions
+    private static <R> R parse(Parser<R> parser) {
+        try {
+            return parser.parse();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A parse operation that may throw a checked exception.
+     *
+     * @param <R>  the result type
+     */
+    private interface Parser<R> {
+        R parse() throws Exception;
+    }
+
+}
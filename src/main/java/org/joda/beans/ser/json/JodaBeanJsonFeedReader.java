@@ -0,0 +1,221 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.joda.beans.JodaBeanUtils;
+import org.joda.beans.ser.JodaBeanSer;
+
+/**
+ * Provides the ability for Joda-Beans to be read from JSON that arrives in chunks.
+ * <p>
+ * This reader is fed chunks of UTF-8 bytes as they arrive, such as from a non-blocking
+ * network channel, and never blocks waiting for more input.
+ * When a chunk completes a bean, the bean is parsed and made available to {@link #poll()}.
+ * The input may contain any number of beans, each a JSON object as defined by
+ * {@link JodaBeanJsonWriter}, separated by optional whitespace.
+ * <p>
+ * As each chunk is fed, the bytes are scanned to find the end of the current bean.
+ * Only the bytes of the current bean are retained, so a long sequence of beans
+ * is never held in memory. Each complete bean is parsed by {@link JodaBeanJsonReader}.
+ * <p>
+ * Note that each root bean is buffered in full before it is parsed.
+ * This reader is therefore intended for splitting a stream of beans, such as
+ * newline-delimited JSON, and a single large bean is held in memory in full.
+ * Use {@link JodaBeanJsonElementFeedReader} to read the elements of a large
+ * collection property as they arrive.
+ * <p>
+ * This class contains mutable state and cannot be used from multiple threads.
+ * Once an exception has been thrown, the reader must not be used again.
+ *
+ * @param <T>  the root type
+ */
+public final class JodaBeanJsonFeedReader<T> {
+
+    /**
+     * The initial size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The settings to use.
+     */
+    private final JodaBeanSer settings;
+    /**
+     * The root type.
+     */
+    private final Class<T> rootType;
+    /**
+     * The beans that have been parsed but not yet polled.
+     */
+    private final ArrayDeque<T> beans = new ArrayDeque<>();
+    /**
+     * The bytes of the current bean.
+     */
+    private byte[] bytes = new byte[BUFFER_SIZE];
+    /**
+     * The number of bytes held.
+     */
+    private int size;
+    /**
+     * The index of the start of the current bean, -1 if between beans.
+     */
+    private int start = -1;
+    /**
+     * The nesting depth of objects and arrays in the current bean.
+     */
+    private int depth;
+    /**
+     * Whether the scan is within a string.
+     */
+    private boolean inString;
+    /**
+     * Whether the previous byte was an escape within a string.
+     */
+    private boolean escape;
+
+    /**
+     * Creates an instance.
+     *
+     * @param settings  the settings, not null
+     * @param rootType  the root type, not null
+     */
+    public JodaBeanJsonFeedReader(JodaBeanSer settings, Class<T> rootType) {
+        JodaBeanUtils.notNull(settings, "settings");
+        JodaBeanUtils.notNull(rootType, "rootType");
+        this.settings = settings;
+        this.rootType = rootType;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Feeds a chunk of UTF-8 bytes to the reader.
+     * <p>
+     * The bytes from the position to the limit of the buffer are consumed,
+     * leaving the position at the limit. Any bean completed by the chunk is parsed.
+     * A multi-byte character may be split across chunks.
+     *
+     * @param chunk  the chunk of bytes, not null
+     * @return true if at least one bean is available to poll
+     * @throws IllegalArgumentException if the data is invalid
+     */
+    public boolean feed(ByteBuffer chunk) {
+        JodaBeanUtils.notNull(chunk, "chunk");
+        int length = chunk.remaining();
+        if (bytes.length - size < length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+        }
+        int scanFrom = size;
+        chunk.get(bytes, size, length);
+        size += length;
+        scan(scanFrom);
+        return isAvailable();
+    }
+
+    /**
+     * Checks if a bean is available to poll.
+     *
+     * @return true if at least one bean is available
+     */
+    public boolean isAvailable() {
+        return beans.isEmpty() == false;
+    }
+
+    /**
+     * Returns the next available bean, removing it from the reader.
+     *
+     * @return the bean, null if no bean is available
+     */
+    public T poll() {
+        return beans.poll();
+    }
+
+    /**
+     * Signals that there is no more input.
+     * <p>
+     * Beans that are available can still be polled.
+     *
+     * @throws IllegalArgumentException if the input ended part way through a bean
+     */
+    public void end() {
+        if (start >= 0) {
+            throw new IllegalArgumentException("Invalid JSON data: End of input part way through a bean");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // scans the new bytes for the end of each bean, parsing each one found
+    private void scan(int from) {
+        for (int i = from; i < size; i++) {
+            byte b = bytes[i];
+            if (start < 0) {
+                if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                    continue;
+                }
+                if (b != '{') {
+                    throw new IllegalArgumentException("Invalid JSON data: Expected JSON object but found '" + (char) (b & 0xFF) + "'");
+                }
+                start = i;
+                depth = 1;
+            } else if (inString) {
+                // multi-byte UTF-8 sequences never contain ASCII bytes
+                if (escape) {
+                    escape = false;
+                } else if (b == '\\') {
+                    escape = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    beans.add(parse(start, i + 1 - start));
+                    start = -1;
+                }
+            }
+        }
+        // retain only the bytes of the current bean, releasing a buffer grown by a large bean
+        if (start < 0) {
+            size = 0;
+            if (bytes.length > BUFFER_SIZE) {
+                bytes = new byte[BUFFER_SIZE];
+            }
+        } else if (start > 0) {
+            System.arraycopy(bytes, start, bytes, 0, size - start);
+            size -= start;
+            start = 0;
+        }
+    }
+
+    // parses the bytes of a complete bean
+    private T parse(int offset, int length) {
+        try {
+            return new JodaBeanJsonReader(settings).parseRoot(new JsonInput(bytes, offset, length), rootType);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
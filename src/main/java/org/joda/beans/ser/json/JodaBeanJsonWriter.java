@@ -16,7 +16,10 @@
 package org.joda.beans.ser.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import org.joda.beans.Bean;
@@ -24,9 +27,11 @@ import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
+import org.joda.beans.ser.SerIterable;
 import org.joda.beans.ser.SerIterator;
 import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
+import org.joda.beans.ser.Utf8Appendable;
 import org.joda.convert.StringConverter;
 
 /**
@@ -82,6 +87,11 @@ public class JodaBeanJsonWriter {
      */
     static final String VALUE = "value";
 
+    /**
+     * The number of streamed elements between each flush of the output.
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
     /**
      * The settings to use.
      */
@@ -168,9 +178,121 @@ public class JodaBeanJsonWriter {
         output.append(settings.getNewLine());
     }
 
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The bytes are encoded directly, without a {@code Writer}.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, OutputStream output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes specifying whether to include the type at the root.
+     * <p>
+     * The bytes are encoded directly, without a {@code Writer}.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, boolean rootType, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output);
+        write(bean, rootType, appendable);
+        appendable.flush();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the bean to the {@code Appendable}, streaming the elements of a collection property.
+     * <p>
+     * This allows a collection that is produced incrementally, such as from a database cursor,
+     * to be written without holding all the elements in memory.
+     * The elements are written as the value of the specified collection property,
+     * which is written after the other properties of the bean.
+     * Any value of the property held by the bean is ignored.
+     * <p>
+     * The type of the bean will be set in the message.
+     * If the output is {@code Flushable}, it is flushed periodically as the elements are written.
+     * The data can be read by any read method, including {@link JodaBeanJsonReader#readElements}.
+     * 
+     * @param bean  the bean to output, not null
+     * @param propertyName  the name of the collection property, such as a list or set, not null
+     * @param elements  the elements of the collection property, not null
+     * @param output  the output appendable, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeElements(Bean bean, String propertyName, Iterator<?> elements, Appendable output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        MetaProperty<?> streamedProp = findCollectionProperty(bean, propertyName, elements);
+        this.output = new JsonOutput(output, settings.getIndent(), settings.getNewLine());
+        writeBean(bean, bean.getClass(), RootType.ROOT_WITH_TYPE, streamedProp, elements);
+        output.append(settings.getNewLine());
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes, streaming the elements of a collection property.
+     * <p>
+     * This allows a collection that is produced incrementally, such as from a database cursor,
+     * to be written in bounded memory.
+     * The elements are written as the value of the specified collection property,
+     * which is written after the other properties of the bean.
+     * Any value of the property held by the bean is ignored.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The stream is flushed periodically as the elements are written, but not closed.
+     * The data can be read by any read method, including {@link JodaBeanJsonReader#readElements}.
+     * 
+     * @param bean  the bean to output, not null
+     * @param propertyName  the name of the collection property, such as a list or set, not null
+     * @param elements  the elements of the collection property, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void writeElements(Bean bean, String propertyName, Iterator<?> elements, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output);
+        writeElements(bean, propertyName, elements, appendable);
+        appendable.flush();
+    }
+
+    // finds the property to stream, which must be a collection whose elements are written individually
+    private MetaProperty<?> findCollectionProperty(Bean bean, String propertyName, Iterator<?> elements) {
+        JodaBeanUtils.notNull(bean, "bean");
+        JodaBeanUtils.notNull(propertyName, "propertyName");
+        JodaBeanUtils.notNull(elements, "elements");
+        MetaProperty<?> prop = bean.metaBean().metaProperty(propertyName);
+        SerIterable iterable = settings.getIteratorFactory().createIterable(prop, bean.getClass());
+        if (Collection.class.isAssignableFrom(prop.propertyType()) == false ||
+                iterable == null || iterable.category() != SerCategory.COLLECTION) {
+            throw new IllegalArgumentException("Property is not a collection: " + propertyName);
+        }
+        return prop;
+    }
+
     //-----------------------------------------------------------------------
     // write a bean as a JSON object
     private void writeBean(Bean bean, Class<?> declaredType, RootType rootTypeFlag) throws IOException {
+        writeBean(bean, declaredType, rootTypeFlag, null, null);
+    }
+
+    // the streamed property is written last, using the elements rather than the value in the bean
+    private void writeBean(
+            Bean bean,
+            Class<?> declaredType,
+            RootType rootTypeFlag,
+            MetaProperty<?> streamedProp,
+            Iterator<?> elements) throws IOException {
+
         output.writeObjectStart();
         // type information
         if (rootTypeFlag == RootType.ROOT_WITH_TYPE || (rootTypeFlag == RootType.NOT_ROOT && bean.getClass() != declaredType)) {
@@ -182,10 +304,13 @@ public class JodaBeanJsonWriter {
         }
         // property information
         for (MetaProperty<?> prop : bean.metaBean().metaPropertyIterable()) {
+            if (streamedProp != null && prop.name().equals(streamedProp.name())) {
+                continue;
+            }
             if (prop.style().isSerializable() || (prop.style().isDerived() && settings.isIncludeDerived())) {
                 Object value = SerOptional.extractValue(prop, bean);
                 if (value != null) {
-                    output.writeObjectKey(prop.name());
+                    output.writeObjectKey(prop);
                     Class<?> propType = SerOptional.extractType(prop, bean.getClass());
                     if (value instanceof Bean) {
                         if (settings.getConverter().isConvertible(value.getClass())) {
@@ -204,9 +329,38 @@ public class JodaBeanJsonWriter {
                 }
             }
         }
+        if (streamedProp != null) {
+            output.writeObjectKey(streamedProp);
+            writeStreamedElements(bean, streamedProp, elements);
+        }
         output.writeObjectEnd();
     }
 
+    // writes the elements as an array, flushing periodically
+    // the iterator is created from an empty collection of the declared type to match the meta-type
+    private void writeStreamedElements(Bean bean, MetaProperty<?> prop, Iterator<?> elements) throws IOException {
+        SerIterable iterable = settings.getIteratorFactory().createIterable(prop, bean.getClass());
+        SerIterator itemIterator = settings.getIteratorFactory().create(iterable.build(), prop, bean.getClass());
+        if (itemIterator.metaTypeRequired()) {
+            output.writeObjectStart();
+            output.writeObjectKeyValue(META, itemIterator.metaTypeName());
+            output.writeObjectKey(VALUE);
+        }
+        output.writeArrayStart();
+        long count = 0;
+        while (elements.hasNext()) {
+            output.writeArrayItemStart();
+            writeObject(itemIterator.valueType(), elements.next(), itemIterator);
+            if (++count % FLUSH_INTERVAL == 0) {
+                output.flush();
+            }
+        }
+        output.writeArrayEnd();
+        if (itemIterator.metaTypeRequired()) {
+            output.writeObjectEnd();
+        }
+    }
+
     //-----------------------------------------------------------------------
     // write a collection
     private void writeElements(SerIterator itemIterator) throws IOException {
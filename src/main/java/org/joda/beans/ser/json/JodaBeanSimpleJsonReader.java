@@ -15,9 +15,10 @@
  */
 package org.joda.beans.ser.json;
 
+import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.util.Collections;
+import java.util.stream.Stream;
 
 import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.ser.JodaBeanSer;
@@ -54,11 +55,13 @@ public class JodaBeanSimpleJsonReader extends AbstractJsonReader {
      */
     public <T> T read(String input, Class<T> rootType) {
         JodaBeanUtils.notNull(input, "input");
-        return read(new StringReader(input), rootType);
+        return read(new JsonInput(input), rootType);
     }
 
     /**
      * Reads and parses to a bean.
+     * <p>
+     * The input is read in blocks, thus characters after the end of the JSON may be consumed.
      * 
      * @param <T>  the root type
      * @param input  the input reader, not null
@@ -67,10 +70,46 @@ public class JodaBeanSimpleJsonReader extends AbstractJsonReader {
      */
     public <T> T read(Reader input, Class<T> rootType) {
         JodaBeanUtils.notNull(input, "input");
+        return read(new JsonInput(input), rootType);
+    }
+
+    /**
+     * Reads and parses UTF-8 bytes to a bean.
+     * <p>
+     * The bytes are decoded directly, without a {@code Reader}.
+     * 
+     * @param <T>  the root type
+     * @param input  the input UTF-8 bytes, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(byte[] input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return read(new JsonInput(input), rootType);
+    }
+
+    /**
+     * Reads and parses a stream of UTF-8 bytes to a bean.
+     * <p>
+     * The bytes are decoded directly, without a {@code Reader}.
+     * The input is read in blocks, thus bytes after the end of the JSON may be consumed.
+     * The stream is not closed.
+     * 
+     * @param <T>  the root type
+     * @param input  the input stream of UTF-8 bytes, not null
+     * @param rootType  the root type, not null
+     * @return the bean, not null
+     */
+    public <T> T read(InputStream input, Class<T> rootType) {
+        JodaBeanUtils.notNull(input, "input");
+        return read(new JsonInput(input), rootType);
+    }
+
+    // parses the input
+    private <T> T read(JsonInput input, Class<T> rootType) {
         JodaBeanUtils.notNull(rootType, "rootType");
         try {
-            JsonInput jsonInput = new JsonInput(input);
-            return parseRoot(jsonInput, rootType);
+            return parseRoot(input, rootType);
         } catch (RuntimeException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -78,6 +117,55 @@ public class JodaBeanSimpleJsonReader extends AbstractJsonReader {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Reads the elements of a collection property of the root bean as a stream.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean before the collection are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The input is read in blocks, thus characters after the end of the JSON may be consumed.
+     * The stream must be closed to close the reader.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input reader, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(Reader input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        JodaBeanUtils.notNull(input, "input");
+        return parseRootElements(new JsonInput(input), input, rootType, propertyName, elementType);
+    }
+
+    /**
+     * Reads the elements of a collection property of the root bean as a stream from UTF-8 bytes.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean before the collection are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The bytes are decoded directly, without a {@code Reader}.
+     * The stream must be closed to close the input stream.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input stream of UTF-8 bytes, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(InputStream input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        JodaBeanUtils.notNull(input, "input");
+        return parseRootElements(new JsonInput(input), input, rootType, propertyName, elementType);
+    }
+
     //-----------------------------------------------------------------------
     @Override
     SerIterable parseUnknownArray(Class<?> declaredType) {
@@ -16,6 +16,7 @@
 package org.joda.beans.ser.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import org.joda.beans.Bean;
 import org.joda.beans.JodaBeanUtils;
@@ -24,6 +25,7 @@ import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerIterator;
 import org.joda.beans.ser.SerOptional;
+import org.joda.beans.ser.Utf8Appendable;
 import org.joda.convert.StringConverter;
 
 /**
@@ -102,6 +104,23 @@ public class JodaBeanSimpleJsonWriter {
         output.append(settings.getNewLine());
     }
 
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes.
+     * <p>
+     * The bytes are encoded directly, without a {@code Writer}.
+     * The stream is flushed but not closed.
+     * 
+     * @param bean  the bean to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, OutputStream output) throws IOException {
+        JodaBeanUtils.notNull(output, "output");
+        Utf8Appendable appendable = new Utf8Appendable(output);
+        write(bean, appendable);
+        appendable.flush();
+    }
+
     //-----------------------------------------------------------------------
     // write a bean as a JSON object
     private void writeBean(Bean bean, Class<?> declaredType) throws IOException {
@@ -111,7 +130,7 @@ public class JodaBeanSimpleJsonWriter {
             if (prop.style().isSerializable() || (prop.style().isDerived() && settings.isIncludeDerived())) {
                 Object value = SerOptional.extractValue(prop, bean);
                 if (value != null) {
-                    output.writeObjectKey(prop.name());
+                    output.writeObjectKey(prop);
                     Class<?> propType = SerOptional.extractType(prop, bean.getClass());
                     if (value instanceof Bean) {
                         if (settings.getConverter().isConvertible(value.getClass())) {
@@ -16,13 +16,37 @@
 package org.joda.beans.ser.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 
 /**
  * Reader of JSON data.
+ * <p>
+ * The characters are read in blocks into an internal buffer, and scanned using an index.
+ * As such, more characters may be read from the {@code Reader} than are parsed.
+ * <p>
+ * UTF-8 bytes are decoded directly into the buffer, with a fast path for ASCII,
+ * avoiding the overhead of a {@code Reader} and charset decoder.
  */
 final class JsonInput {
 
+    /**
+     * The size of the buffer used when reading from a {@code Reader}.
+     */
+    private static final int BUFFER_SIZE = 8192;
+    /**
+     * The largest long that can be exactly represented as a double.
+     */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+    /**
+     * The largest power of ten that can be exactly represented as a double.
+     */
+    private static final int MAX_EXACT_POWER = 22;
+    /**
+     * The powers of ten that can be exactly represented as a double.
+     */
+    private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
     /** encoding JSON */
     private static final String[] REPLACE = new String[128];
     static {
@@ -38,11 +62,46 @@ final class JsonInput {
         REPLACE['\\'] = "\\\\";
         REPLACE[127] = "\\u007f";
     }
+    static {
+        double power = 1d;
+        for (int i = 0; i <= MAX_EXACT_POWER; i++) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10d;
+        }
+    }
 
     /**
-     * The reader.
+     * The reader, null if parsing a string or bytes.
      */
     private final Reader input;
+    /**
+     * The stream of UTF-8 bytes, null if not parsing a stream.
+     */
+    private final InputStream stream;
+    /**
+     * The UTF-8 bytes, null if not parsing bytes.
+     */
+    private final byte[] bytes;
+    /**
+     * The index of the next byte.
+     */
+    private int bytePos;
+    /**
+     * The number of valid bytes.
+     */
+    private int byteLimit;
+    /**
+     * The buffer of characters.
+     */
+    private final char[] chars;
+    /**
+     * The index of the next character in the buffer.
+     */
+    private int pos;
+    /**
+     * The number of valid characters in the buffer.
+     */
+    private int limit;
     /**
      * The reused string buffer.
      */
@@ -56,9 +115,9 @@ final class JsonInput {
      */
     private double floating;
     /**
-     * The previously read character.
+     * The character pushed back, -1 if none.
      */
-    private Character cachedNext;
+    private int pushedBack = -1;
     /**
      * The previously read object key.
      */
@@ -70,7 +129,83 @@ final class JsonInput {
      * @param input  the input to read from, not null
      */
     JsonInput(Reader input) {
+        this(input, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an instance that parses JSON using the specified buffer size.
+     * 
+     * @param input  the input to read from, not null
+     * @param bufferSize  the buffer size, greater than zero
+     */
+    JsonInput(Reader input, int bufferSize) {
         this.input = input;
+        this.stream = null;
+        this.bytes = null;
+        this.chars = new char[bufferSize];
+    }
+
+    /**
+     * Creates an instance that parses JSON from a string.
+     * <p>
+     * The string is copied once to the buffer, avoiding the {@code Reader}.
+     * 
+     * @param input  the input to read from, not null
+     */
+    JsonInput(String input) {
+        this.input = null;
+        this.stream = null;
+        this.bytes = null;
+        this.chars = input.toCharArray();
+        this.limit = chars.length;
+    }
+
+    /**
+     * Creates an instance that parses JSON from UTF-8 bytes.
+     * 
+     * @param input  the input to read from, not null
+     */
+    JsonInput(byte[] input) {
+        this(input, 0, input.length);
+    }
+
+    /**
+     * Creates an instance that parses JSON from a range of UTF-8 bytes.
+     * 
+     * @param input  the input to read from, not null
+     * @param offset  the offset of the first byte
+     * @param length  the number of bytes
+     */
+    JsonInput(byte[] input, int offset, int length) {
+        this.input = null;
+        this.stream = null;
+        this.bytes = input;
+        this.bytePos = offset;
+        this.byteLimit = offset + length;
+        // no need for a buffer larger than the input
+        this.chars = new char[Math.max(2, Math.min(BUFFER_SIZE, length + 1))];
+    }
+
+    /**
+     * Creates an instance that parses JSON from a stream of UTF-8 bytes.
+     * 
+     * @param input  the input to read from, not null
+     */
+    JsonInput(InputStream input) {
+        this(input, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an instance that parses JSON from a stream of UTF-8 bytes using the specified buffer size.
+     * 
+     * @param input  the input to read from, not null
+     * @param bufferSize  the buffer size, greater than zero
+     */
+    JsonInput(InputStream input, int bufferSize) {
+        this.input = null;
+        this.stream = input;
+        this.bytes = new byte[Math.max(bufferSize, 4)];
+        this.chars = new char[Math.max(bufferSize, 2)];
     }
 
     //-----------------------------------------------------------------------
@@ -126,7 +261,7 @@ final class JsonInput {
 
     // store peeked value for later use
     void pushBack(char ch) throws IOException {
-        cachedNext = ch;
+        pushedBack = ch;
     }
 
     // store peeked value for later use
@@ -173,17 +308,48 @@ final class JsonInput {
 
     // opening quite already consumed
     String parseString() throws IOException {
+        // fast path, where the whole string is in the buffer without escapes
+        if (pushedBack < 0) {
+            for (int i = pos; i < limit; i++) {
+                char ch = chars[i];
+                if (ch == '"') {
+                    String str = new String(chars, pos, i - pos);
+                    pos = i + 1;
+                    return str;
+                }
+                if (ch == '\\') {
+                    break;
+                }
+            }
+        }
+        // slow path, appending each run of characters between escapes and buffer refills
         buf.setLength(0);
-        char next = readNext();
-        while (next != '"') {
-            if (next == '\\') {
+        while (true) {
+            if (pushedBack >= 0 || pos == limit) {
+                char next = readNext();
+                if (next == '"') {
+                    return buf.toString();
+                } else if (next == '\\') {
+                    parseEscape();
+                } else {
+                    buf.append(next);
+                }
+                continue;
+            }
+            int start = pos;
+            char ch = chars[pos];
+            while (ch != '"' && ch != '\\' && ++pos < limit) {
+                ch = chars[pos];
+            }
+            buf.append(chars, start, pos - start);
+            if (pos < limit) {
+                pos++;
+                if (ch == '"') {
+                    return buf.toString();
+                }
                 parseEscape();
-            } else {
-                buf.append(next);
             }
-            next = readNext();
         }
-        return buf.toString();
     }
 
     private void parseEscape() throws IOException {
@@ -250,32 +416,100 @@ final class JsonInput {
         return floating;
     }
 
+    // parses the number directly, only creating a string when the fast path cannot be used
     private JsonEvent acceptNumber(char first) throws IOException {
         buf.setLength(0);
-        buf.append(first);
-        char last = first;
-        char next = readNext();
-        while ((next >= '0' && next <= '9') || next == '.' || next == '-' || next == '+' || next == 'e' || next == 'E') {
-            buf.append((char) next);
-            last = next;
-            next = readNext();
+        boolean negative = (first == '-');
+        char next = negative ? appendAndReadNext(first) : first;
+        // the significant digits are accumulated negatively, so that Long.MIN_VALUE can be parsed
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        boolean overflow = false;
+        if (next == '0') {
+            next = appendAndReadNext(next);
+            if (next >= '0' && next <= '9') {
+                throw new IllegalArgumentException("Invalid JSON data: Expected number but found zero at start");
+            }
+        } else {
+            ensureDigit(next);
+            while (next >= '0' && next <= '9') {
+                int digit = next - '0';
+                if (value < limit / 10 || value * 10 < limit + digit) {
+                    overflow = true;
+                } else {
+                    value = value * 10 - digit;
+                }
+                next = appendAndReadNext(next);
+            }
+        }
+        boolean fractional = false;
+        int scale = 0;
+        if (next == '.') {
+            fractional = true;
+            next = appendAndReadNext(next);
+            ensureDigit(next);
+            while (next >= '0' && next <= '9') {
+                int digit = next - '0';
+                if (value < limit / 10 || value * 10 < limit + digit) {
+                    overflow = true;
+                } else {
+                    value = value * 10 - digit;
+                    scale++;
+                }
+                next = appendAndReadNext(next);
+            }
         }
-        pushBack(next);
-        if (last < '0' || last > '9') {
-            throw new IllegalArgumentException("Invalid JSON data: Expected number but found invalid last char '" + last + "'");
+        int exponent = 0;
+        if (next == 'e' || next == 'E') {
+            fractional = true;
+            next = appendAndReadNext(next);
+            boolean negativeExponent = (next == '-');
+            if (next == '-' || next == '+') {
+                next = appendAndReadNext(next);
+            }
+            ensureDigit(next);
+            while (next >= '0' && next <= '9') {
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + (next - '0');
+                }
+                next = appendAndReadNext(next);
+            }
+            exponent = negativeExponent ? -exponent : exponent;
         }
-        String str = buf.toString();
-        if (str.equals("0")) {
-            integral = 0;
+        if (next == '.' || next == '-' || next == '+' || next == 'e' || next == 'E') {
+            throw new IllegalArgumentException("Invalid JSON data: Expected number but found invalid char '" + next + "'");
+        }
+        // the character after the number is still in the buffer
+        pos--;
+        if (fractional == false) {
+            if (overflow) {
+                throw new IllegalArgumentException("Invalid JSON data: Number too large: " + buf);
+            }
+            integral = negative ? value : -value;
             return JsonEvent.NUMBER_INTEGRAL;
-        } else if (str.startsWith("0") && str.charAt(1) != '.') {
-            throw new IllegalArgumentException("Invalid JSON data: Expected number but found zero at start");
-        } else if (str.contains(".") || str.contains("e") || str.contains("E")) {
-            floating = Double.parseDouble(str);
-            return JsonEvent.NUMBER_FLOATING;
+        }
+        // exact when the digits and power of ten are both exactly representable
+        // as the result is then a single correctly rounded multiplication or division
+        int power = exponent - scale;
+        if (overflow == false && value >= -MAX_EXACT_LONG && power >= -MAX_EXACT_POWER && power <= MAX_EXACT_POWER) {
+            double abs = (double) -value;
+            abs = power < 0 ? abs / POWERS_OF_TEN[-power] : abs * POWERS_OF_TEN[power];
+            floating = negative ? -abs : abs;
         } else {
-            integral = Long.parseLong(str);
-            return JsonEvent.NUMBER_INTEGRAL;
+            floating = Double.parseDouble(buf.toString());
+        }
+        return JsonEvent.NUMBER_FLOATING;
+    }
+
+    // appends the character to the number buffer and reads the next character
+    private char appendAndReadNext(char ch) throws IOException {
+        buf.append(ch);
+        return readNext();
+    }
+
+    private void ensureDigit(char ch) {
+        if (ch < '0' || ch > '9') {
+            throw new IllegalArgumentException("Invalid JSON data: Expected digit but found '" + ch + "'");
         }
     }
 
@@ -311,20 +545,211 @@ final class JsonInput {
 
     //-----------------------------------------------------------------------
     private char readNext() throws IOException {
-        if (cachedNext != null) {
-            char next = cachedNext.charValue();
-            cachedNext = null;
+        if (pushedBack >= 0) {
+            char next = (char) pushedBack;
+            pushedBack = -1;
             return next;
         }
-        int next = input.read();
-        if (next == -1) {
+        if (pos == limit && fill() == false) {
             throw new IllegalArgumentException("Invalid JSON data: End of file");
         }
-        return (char) next;
+        return chars[pos++];
+    }
+
+    // refills the buffer, returning false at the end of the input
+    private boolean fill() throws IOException {
+        if (bytes != null) {
+            return decode();
+        }
+        if (input == null) {
+            return false;
+        }
+        int count = input.read(chars, 0, chars.length);
+        while (count == 0) {
+            count = input.read(chars, 0, chars.length);
+        }
+        if (count < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
+    }
+
+    // decodes UTF-8 bytes into the buffer, returning false at the end of the input
+    // malformed input is replaced by U+FFFD, as per the standard decoder
+    private boolean decode() throws IOException {
+        int count = 0;
+        // leave space for a surrogate pair
+        int max = chars.length - 1;
+        while (count < max) {
+            // fast path for ASCII
+            int end = Math.min(byteLimit, bytePos + max - count);
+            while (bytePos < end && bytes[bytePos] >= 0) {
+                chars[count++] = (char) bytes[bytePos++];
+            }
+            if (bytePos == byteLimit) {
+                // return the decoded characters rather than block for more input
+                if (count > 0 || readBytes() == false) {
+                    break;
+                }
+                continue;
+            }
+            if (count == max) {
+                break;
+            }
+            int b = bytes[bytePos] & 0xFF;
+            int size = (b >= 0xF0 ? 4 : (b >= 0xE0 ? 3 : 2));
+            if (byteLimit - bytePos < size && readBytes()) {
+                continue;
+            }
+            int codePoint = decodeCodePoint(b, size);
+            if (codePoint < 0) {
+                chars[count++] = '\uFFFD';
+                bytePos++;
+            } else if (codePoint >= 0x10000) {
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+                bytePos += size;
+            } else {
+                chars[count++] = (char) codePoint;
+                bytePos += size;
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        pos = 0;
+        limit = count;
+        return true;
     }
 
+    // decodes the multi-byte sequence starting at the byte position, -1 if malformed
+    private int decodeCodePoint(int b, int size) {
+        if (b < 0xC2 || b > 0xF4 || byteLimit - bytePos < size) {
+            return -1;
+        }
+        int codePoint = b & (0x7F >> size);
+        for (int i = 1; i < size; i++) {
+            int next = bytes[bytePos + i];
+            if ((next & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        if ((size == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint))) ||
+                (size == 4 && (codePoint < 0x10000 || codePoint > 0x10FFFF))) {
+            return -1;
+        }
+        return codePoint;
+    }
+
+    // reads more bytes from the stream, retaining any undecoded bytes, returning false at the end of the stream
+    private boolean readBytes() throws IOException {
+        if (stream == null) {
+            return false;
+        }
+        int remaining = byteLimit - bytePos;
+        System.arraycopy(bytes, bytePos, bytes, 0, remaining);
+        bytePos = 0;
+        byteLimit = remaining;
+        int count = stream.read(bytes, remaining, bytes.length - remaining);
+        while (count == 0) {
+            count = stream.read(bytes, remaining, bytes.length - remaining);
+        }
+        if (count < 0) {
+            return false;
+        }
+        byteLimit += count;
+        return true;
+    }
+
+    // skips the next value by matching brackets and quotes over the buffer,
+    // without building strings or parsing numbers
     void skipData() throws IOException {
-        skipData(readEvent());
+        if (pushedBack >= 0) {
+            skipData(readEvent());
+            return;
+        }
+        char next = readNext();
+        while (next == ' ' || next == '\t' || next == '\n' || next == '\r') {
+            next = readNext();
+        }
+        switch (next) {
+            case '{':
+            case '[':
+                skipNested();
+                break;
+            case '"':
+                skipString();
+                break;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+            case 'n':
+            case 't':
+            case 'f':
+                skipLiteral();
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid JSON data: Expected data item but found '" + next + "'");
+        }
+    }
+
+    // skips to the end of an object or array, opening bracket already consumed
+    private void skipNested() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            if (pos == limit && fill() == false) {
+                throw new IllegalArgumentException("Invalid JSON data: End of file");
+            }
+            char ch = chars[pos++];
+            if (ch == '"') {
+                skipString();
+            } else if (ch == '{' || ch == '[') {
+                depth++;
+            } else if (ch == '}' || ch == ']') {
+                depth--;
+            }
+        }
+    }
+
+    // skips to the end of a string, opening quote already consumed
+    private void skipString() throws IOException {
+        while (true) {
+            if (pos == limit && fill() == false) {
+                throw new IllegalArgumentException("Invalid JSON data: End of file");
+            }
+            char ch = chars[pos++];
+            if (ch == '"') {
+                return;
+            }
+            if (ch == '\\') {
+                if (pos == limit && fill() == false) {
+                    throw new IllegalArgumentException("Invalid JSON data: End of file");
+                }
+                pos++;
+            }
+        }
+    }
+
+    // skips the rest of a number, null, true or false, leaving the following character unread
+    private void skipLiteral() throws IOException {
+        while (pos < limit || fill()) {
+            char ch = chars[pos];
+            if (ch == ',' || ch == '}' || ch == ']' || ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r') {
+                return;
+            }
+            pos++;
+        }
     }
 
     private void skipData(JsonEvent event) throws IOException {
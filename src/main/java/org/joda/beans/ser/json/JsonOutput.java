@@ -15,8 +15,14 @@
  */
 package org.joda.beans.ser.json;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.joda.beans.DynamicMetaBean;
+import org.joda.beans.MetaProperty;
 
 /**
  * Outputter for JSON data.
@@ -38,6 +44,8 @@ final class JsonOutput {
         REPLACE['\\'] = "\\\\";
         REPLACE[127] = "\\u007f";
     }
+    /** encoded property names, including the quotes and colon, only for meta-beans that are not dynamic */
+    private static final ConcurrentMap<MetaProperty<?>, String> PROPERTY_KEYS = new ConcurrentHashMap<>();
 
     /**
      * The appender to write to.
@@ -256,6 +264,41 @@ final class JsonOutput {
      * @throws IOException if an error occurs
      */
     void writeObjectKey(String key) throws IOException {
+        writeObjectKeyPrefix();
+        writeString(key);
+        output.append(':');
+        writeObjectKeySuffix();
+    }
+
+    /**
+     * Writes a JSON object key for a property.
+     * <p>
+     * This handles the comma, string encoded key and separator colon.
+     * The encoded key and colon are written as a single append.
+     * They are cached for each meta-property, except those of a dynamic meta-bean.
+     * 
+     * @param prop  the meta-property whose name is the key
+     * @throws IOException if an error occurs
+     */
+    void writeObjectKey(MetaProperty<?> prop) throws IOException {
+        String token = PROPERTY_KEYS.get(prop);
+        if (token == null) {
+            String name = prop.name();
+            StringBuilder buf = new StringBuilder(name.length() + 3);
+            new JsonOutput(buf).writeString(name);
+            token = buf.append(':').toString();
+            // the property names of a dynamic meta-bean are unbounded, so are not cached
+            if ((prop.metaBean() instanceof DynamicMetaBean) == false) {
+                PROPERTY_KEYS.putIfAbsent(prop, token);
+            }
+        }
+        writeObjectKeyPrefix();
+        output.append(token);
+        writeObjectKeySuffix();
+    }
+
+    // writes the comma and indent before a key
+    private void writeObjectKeyPrefix() throws IOException {
         if (commaState.get(commaDepth)) {
             output.append(',');
         } else {
@@ -263,8 +306,10 @@ final class JsonOutput {
         }
         output.append(newLine);
         output.append(currentIndent);
-        writeString(key);
-        output.append(':');
+    }
+
+    // writes the space after the colon when pretty printing
+    private void writeObjectKeySuffix() throws IOException {
         if (newLine.length() > 0) {
             output.append(' ');
         }
@@ -297,4 +342,16 @@ final class JsonOutput {
         commaDepth--;
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Flushes the output, if it is {@code Flushable}.
+     * 
+     * @throws IOException if an error occurs
+     */
+    void flush() throws IOException {
+        if (output instanceof Flushable) {
+            ((Flushable) output).flush();
+        }
+    }
+
 }
@@ -228,7 +228,7 @@ public class JodaBeanSimpleMapReader {
         iterable.dimensions(new int[] {rows, columns});
         for (Object inputVal : inputList.subList(2, inputList.size())) {
             List<?> inputData = (List<?>) inputVal;
-            if (inputData.size() != 2) {
+            if (inputData.size() != 3) {
                 throw new IllegalArgumentException("Expected grid iterable to have entries of size 3");
             }
             Integer row = (Integer) inputData.get(0);
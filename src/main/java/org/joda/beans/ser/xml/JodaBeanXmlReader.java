@@ -15,35 +15,48 @@
  */
 package org.joda.beans.ser.xml;
 
-import static org.joda.beans.ser.xml.JodaBeanXml.BEAN_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COLS_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COL_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.COUNT_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ENTRY_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ITEM_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.KEY_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.METATYPE_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.NULL_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ROWS_QNAME;
-import static org.joda.beans.ser.xml.JodaBeanXml.ROW_QNAME;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.joda.beans.ser.xml.JodaBeanXml.BEAN;
+import static org.joda.beans.ser.xml.JodaBeanXml.COL;
+import static org.joda.beans.ser.xml.JodaBeanXml.COLS;
+import static org.joda.beans.ser.xml.JodaBeanXml.COUNT;
+import static org.joda.beans.ser.xml.JodaBeanXml.ENTRY;
+import static org.joda.beans.ser.xml.JodaBeanXml.ITEM;
+import static org.joda.beans.ser.xml.JodaBeanXml.KEY;
+import static org.joda.beans.ser.xml.JodaBeanXml.METATYPE;
+import static org.joda.beans.ser.xml.JodaBeanXml.NULL;
+import static org.joda.beans.ser.xml.JodaBeanXml.ROW;
+import static org.joda.beans.ser.xml.JodaBeanXml.ROWS;
 import static org.joda.beans.ser.xml.JodaBeanXml.TYPE;
-import static org.joda.beans.ser.xml.JodaBeanXml.TYPE_QNAME;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.joda.beans.Bean;
 import org.joda.beans.BeanBuilder;
+import org.joda.beans.JodaBeanUtils;
 import org.joda.beans.MetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
@@ -65,14 +78,31 @@ import org.joda.beans.ser.SerTypeMapper;
  */
 public class JodaBeanXmlReader {
 
+    /**
+     * The property used by the JDK parser to reuse a closed reader when creating the next reader.
+     */
+    private static final String REUSE_INSTANCE = "reuse-instance";
+    /**
+     * The shared factory.
+     */
+    private static final XMLInputFactory FACTORY = createFactory(false);
+    /**
+     * The factory for each thread that reuses closed readers, as the reused reader is held by the factory.
+     */
+    private static final ThreadLocal<XMLInputFactory> REUSING_FACTORY = ThreadLocal.withInitial(() -> createFactory(true));
+
     /**
      * Settings.
      */
     private final JodaBeanSer settings;
+    /**
+     * Whether to reuse the underlying StAX readers.
+     */
+    private final boolean reuseReaders;
     /**
      * The reader.
      */
-    private XMLEventReader reader;
+    private XMLStreamReader reader;
     /**
      * The base package including the trailing dot.
      */
@@ -88,7 +118,23 @@ public class JodaBeanXmlReader {
      * @param settings  the settings, not null
      */
     public JodaBeanXmlReader(final JodaBeanSer settings) {
+        this(settings, false);
+    }
+
+    /**
+     * Creates an instance, optionally reusing the underlying StAX readers.
+     * <p>
+     * Reuse avoids allocating the internal buffers of the StAX reader for each message,
+     * which is significant when reading many small messages.
+     * A reader is only reused once closed, and reuse is per-thread.
+     * If the StAX implementation does not support reuse, the flag is ignored.
+     * 
+     * @param settings  the settings, not null
+     * @param reuseReaders  true to reuse the underlying StAX readers
+     */
+    public JodaBeanXmlReader(final JodaBeanSer settings, final boolean reuseReaders) {
         this.settings = settings;
+        this.reuseReaders = reuseReaders;
     }
 
     //-----------------------------------------------------------------------
@@ -135,7 +181,7 @@ public class JodaBeanXmlReader {
     public <T> T read(final InputStream input, Class<T> rootType) {
         try {
             try {
-                reader = factory().createXMLEventReader(input);
+                reader = factory().createXMLStreamReader(input);
                 return read(rootType);
             } finally {
                 if (reader != null) {
@@ -170,7 +216,7 @@ public class JodaBeanXmlReader {
     public <T> T read(final Reader input, Class<T> rootType) {
         try {
             try {
-                reader = factory().createXMLEventReader(input);
+                reader = factory().createXMLStreamReader(input);
                 return read(rootType);
             } finally {
                 if (reader != null) {
@@ -184,17 +230,149 @@ public class JodaBeanXmlReader {
         }
     }
 
+    //-----------------------------------------------------------------------
     /**
-     * Creates the factory.
+     * Reads the elements of a collection property of the root bean as a stream.
      * <p>
-     * Recreated each time to avoid JDK-8028111.
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean before the collection are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The stream must be closed to close the reader.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input reader, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(final Reader input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        JodaBeanUtils.notNull(input, "input");
+        try {
+            return readElements(factory().createXMLStreamReader(input), input, rootType, propertyName, elementType);
+        } catch (XMLStreamException ex) {
+            RuntimeException wrapped = new RuntimeException(ex);
+            try {
+                input.close();
+            } catch (IOException ex2) {
+                wrapped.addSuppressed(ex2);
+            }
+            throw wrapped;
+        }
+    }
+
+    /**
+     * Reads the elements of a collection property of the root bean as a stream.
+     * <p>
+     * This allows a very large collection to be processed without holding it in memory.
+     * Each element is only parsed when requested by the stream.
+     * The other properties of the root bean before the collection are skipped.
+     * The stream is empty if the property is not present in the data.
+     * <p>
+     * The stream must be closed to close the input stream.
+     * This reader must not be used for another message until the stream is closed.
+     * 
+     * @param <T>  the element type
+     * @param input  the input stream, not null
+     * @param rootType  the root type, not null
+     * @param propertyName  the name of the collection property, not null
+     * @param elementType  the element type, not null
+     * @return the stream of elements, not null
+     */
+    public <T> Stream<T> readElements(final InputStream input, Class<?> rootType, String propertyName, Class<T> elementType) {
+        JodaBeanUtils.notNull(input, "input");
+        try {
+            return readElements(factory().createXMLStreamReader(input), input, rootType, propertyName, elementType);
+        } catch (XMLStreamException ex) {
+            RuntimeException wrapped = new RuntimeException(ex);
+            try {
+                input.close();
+            } catch (IOException ex2) {
+                wrapped.addSuppressed(ex2);
+            }
+            throw wrapped;
+        }
+    }
+
+    // reads the elements, closing the reader and source when the stream is closed, or if parsing the root fails
+    private <T> Stream<T> readElements(
+            final XMLStreamReader streamReader,
+            final Closeable source,
+            Class<?> rootType,
+            String propertyName,
+            Class<T> elementType) {
+
+        try {
+            JodaBeanUtils.notNull(rootType, "rootType");
+            JodaBeanUtils.notNull(propertyName, "propertyName");
+            JodaBeanUtils.notNull(elementType, "elementType");
+            reader = streamReader;
+            Iterator<T> iterator = parseRootElements(rootType, propertyName, elementType);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                    .onClose(() -> close(streamReader, source));
+        } catch (RuntimeException ex) {
+            try {
+                close(streamReader, source);
+            } catch (RuntimeException ex2) {
+                ex.addSuppressed(ex2);
+            }
+            throw ex;
+        } catch (Exception ex) {
+            RuntimeException wrapped = new RuntimeException(ex);
+            try {
+                close(streamReader, source);
+            } catch (RuntimeException ex2) {
+                wrapped.addSuppressed(ex2);
+            }
+            throw wrapped;
+        }
+    }
+
+    // closes the reader and the source
+    private static void close(XMLStreamReader streamReader, Closeable source) {
+        try {
+            try {
+                streamReader.close();
+            } finally {
+                source.close();
+            }
+        } catch (XMLStreamException ex) {
+            throw new RuntimeException(ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the factory.
      * 
      * @return the factory, not null
      */
     private XMLInputFactory factory() {
+        return reuseReaders ? REUSING_FACTORY.get() : FACTORY;
+    }
+
+    /**
+     * Creates a factory.
+     * <p>
+     * The factory is configured before it is shared, and is never changed afterwards.
+     * DTDs are not supported, thus no entities are expanded, so readers from a shared factory
+     * cannot accumulate entity expansion counts, as per JDK-8028111.
+     * 
+     * @param reuse  true to reuse closed readers, if supported
+     * @return the factory, not null
+     */
+    private static XMLInputFactory createFactory(final boolean reuse) {
         XMLInputFactory factory = XMLInputFactory.newInstance();
         factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
         factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        if (reuse && factory.isPropertySupported(REUSE_INSTANCE)) {
+            factory.setProperty(REUSE_INSTANCE, true);
+        }
         return factory;
     }
 
@@ -207,18 +385,91 @@ public class JodaBeanXmlReader {
      * @throws Exception if an error occurs
      */
     private <T> T read(final Class<T> rootType) throws Exception {
-        StartElement start = advanceToStartElement();
-        if (start.getName().equals(BEAN_QNAME) == false) {
-            throw new IllegalArgumentException("Expected root element 'bean' but found '" + start.getName() + "'");
+        Class<?> effectiveType = parseRootType(rootType);
+        Object parsed = parseBean(effectiveType);
+        return rootType.cast(parsed);
+    }
+
+    // parses the root bean as far as the specified collection property
+    private <T> Iterator<T> parseRootElements(Class<?> rootType, String propertyName, Class<T> elementType) throws Exception {
+        Class<?> beanType = parseRootType(rootType);
+        SerDeserializer deser = settings.getDeserializers().findDeserializer(beanType);
+        MetaBean metaBean = deser.findMetaBean(beanType);
+        int event = nextEvent(">bean ");
+        while (event != END_ELEMENT) {
+            if (event == START_ELEMENT) {
+                MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, reader.getLocalName());
+                if (metaProp != null && metaProp.name().equals(propertyName)) {
+                    return parseElements(metaProp, beanType, elementType);
+                }
+                skipElement();
+            }
+            event = nextEvent(".bean ");
+        }
+        return Collections.emptyIterator();
+    }
+
+    // parses the start of the collection, returning an iterator that parses each element when requested
+    // reader must be at StartElement
+    private <T> Iterator<T> parseElements(
+            final MetaProperty<?> metaProp,
+            final Class<?> beanType,
+            final Class<T> elementType) throws Exception {
+
+        SerIterable iterable = settings.getIteratorFactory().createIterable(metaProp, beanType);
+        if (iterable == null) {
+            String metaTypeAttr = reader.getAttributeValue(null, METATYPE);
+            if (metaTypeAttr != null) {
+                iterable = settings.getIteratorFactory().createIterable(metaTypeAttr, settings, knownTypes);
+            }
+        }
+        if (iterable == null || iterable.category() != SerCategory.COLLECTION) {
+            throw new IllegalArgumentException("Property is not a collection: " + metaProp.name());
+        }
+        SerIterable elementIterable = iterable;
+        int first = nextElementEvent(">iter ");
+        return new Iterator<T>() {
+            private int next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next == START_ELEMENT;
+            }
+
+            @Override
+            public T next() {
+                if (next != START_ELEMENT) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    if (ITEM.equals(reader.getLocalName()) == false) {
+                        throw new IllegalArgumentException("Expected 'item' but found '" + reader.getLocalName() + "'");
+                    }
+                    Object value = parseValue(elementIterable);
+                    next = nextElementEvent(".iter ");
+                    return elementType.cast(value);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+    }
+
+    // parses the root element, returning the type of the root bean
+    private Class<?> parseRootType(final Class<?> rootType) throws Exception {
+        advanceToStartElement();
+        if (BEAN.equals(reader.getLocalName()) == false) {
+            throw new IllegalArgumentException("Expected root element 'bean' but found '" + reader.getLocalName() + "'");
         }
-        Attribute attr = start.getAttributeByName(TYPE_QNAME);
-        if (attr == null && rootType == Bean.class) {
+        String typeAttr = reader.getAttributeValue(null, TYPE);
+        if (typeAttr == null && rootType == Bean.class) {
             throw new IllegalArgumentException("Root element attribute must specify '" + TYPE + "'");
         }
         Class<?> effectiveType = rootType;
-        if (attr != null) {
-            String typeStr = attr.getValue();
-            effectiveType = SerTypeMapper.decodeType(typeStr, settings, null, knownTypes);
+        if (typeAttr != null) {
+            effectiveType = SerTypeMapper.decodeType(typeAttr, settings, null, knownTypes);
             if (rootType.isAssignableFrom(effectiveType) == false) {
                 throw new IllegalArgumentException("Specified root type is incompatible with XML root type: " + rootType.getName() + " and " + effectiveType.getName());
             }
@@ -227,38 +478,37 @@ public class JodaBeanXmlReader {
             throw new IllegalArgumentException("Root type is not a Joda-Bean: " + effectiveType.getName());
         }
         basePackage = effectiveType.getPackage().getName() + ".";
-        Object parsed = parseBean(effectiveType);
-        return rootType.cast(parsed);
+        return effectiveType;
     }
 
     /**
      * Parses a logical bean in the input XML.
      * <p>
      * Return type allows for a non-bean to be returned.
+     * The reader must be at the start element of the bean.
      * 
      * @param beanType  the bean type, not null
      * @return the bean, not null
      */
-    @SuppressWarnings("null")
     private Object parseBean(final Class<?> beanType) throws Exception {
         String propName = "";
         try {
-            XMLEvent event = null;
+            int event;
             // handle case where whole bean is Joda-Convert string
             if (settings.getConverter().isConvertible(beanType)) {
                 StringBuilder buf = new StringBuilder();
-                while (reader.hasNext()) {
-                    event = nextEvent(">btxt ");
-                    if (event.isCharacters()) {
-                        buf.append(event.asCharacters().getData());
-                    } else if (event.isEndElement()) {
+                event = nextEvent(">btxt ");
+                while (event != START_ELEMENT) {
+                    if (isCharacters(event)) {
+                        appendText(buf);
+                    } else if (event == END_ELEMENT) {
                         return settings.getConverter().convertFromString(beanType, buf.toString());
-                    } else if (event.isStartElement()) {
-                        break;  // not serialized via Joda-Convert
-                    } else if (event.isEndDocument()) {
+                    } else if (event == END_DOCUMENT) {
                         throw new IllegalArgumentException("Unexpected end of document");
                     }
+                    event = nextEvent(">btxt ");
                 }
+                // not serialized via Joda-Convert
             } else {
                 event = nextEvent(">bean ");
             }
@@ -267,41 +517,30 @@ public class JodaBeanXmlReader {
             MetaBean metaBean = deser.findMetaBean(beanType);
             BeanBuilder<?> builder = deser.createBuilder(beanType, metaBean);
             // handle beans with structure
-            while (event.isEndElement() == false) {
-                if (event.isStartElement()) {
-                    StartElement start = event.asStartElement();
-                    propName = start.getName().getLocalPart();
+            while (event != END_ELEMENT) {
+                if (event == START_ELEMENT) {
+                    propName = reader.getLocalName();
                     MetaProperty<?> metaProp = deser.findMetaProperty(beanType, metaBean, propName);
                     if (metaProp == null || metaProp.style().isDerived()) {
-                        int depth = 0;
-                        event = nextEvent(" skip ");
-                        while (event.isEndElement() == false || depth > 0) {
-                            if (event.isStartElement()) {
-                                depth++;
-                            } else if (event.isEndElement()) {
-                                depth--;
-                            }
-                            event = nextEvent(" skip ");
-                        }
-                        // skip elements
+                        skipElement();
                     } else {
-                        Class<?> childType = parseTypeAttribute(start, SerOptional.extractType(metaProp, beanType));
+                        Class<?> childType = parseTypeAttribute(SerOptional.extractType(metaProp, beanType));
                         Object value;
                         if (Bean.class.isAssignableFrom(childType)) {
                             value = parseBean(childType);
                         } else {
                             SerIterable iterable = settings.getIteratorFactory().createIterable(metaProp, beanType);
                             if (iterable != null) {
-                                value = parseIterable(start, iterable);
+                                value = parseIterable(iterable);
                             } else {
                                 // metatype
-                                Attribute metaTypeAttr = start.getAttributeByName(METATYPE_QNAME);
+                                String metaTypeAttr = reader.getAttributeValue(null, METATYPE);
                                 if (metaTypeAttr != null) {
-                                    iterable = settings.getIteratorFactory().createIterable(metaTypeAttr.getValue(), settings, knownTypes);
+                                    iterable = settings.getIteratorFactory().createIterable(metaTypeAttr, settings, knownTypes);
                                     if (iterable == null) {
                                         throw new IllegalArgumentException("Invalid metaType");
                                     }
-                                    value = parseIterable(start, iterable);
+                                    value = parseIterable(iterable);
                                 } else {
                                     String text = advanceAndParseText();
                                     value = settings.getConverter().convertFromString(childType, text);
@@ -322,81 +561,78 @@ public class JodaBeanXmlReader {
 
     /**
      * Parses to a collection wrapper.
+     * <p>
+     * The reader must be at the start element of the collection.
      * 
      * @param iterable  the iterable builder, not null
      * @return the iterable, not null
      */
-    private Object parseIterable(final StartElement iterableEvent, final SerIterable iterable) throws Exception {
-        Attribute rowsAttr = iterableEvent.getAttributeByName(ROWS_QNAME);
-        Attribute columnsAttr = iterableEvent.getAttributeByName(COLS_QNAME);
+    private Object parseIterable(final SerIterable iterable) throws Exception {
+        String rowsAttr = reader.getAttributeValue(null, ROWS);
+        String columnsAttr = reader.getAttributeValue(null, COLS);
         if (rowsAttr != null && columnsAttr != null) {
-            iterable.dimensions(new int[] {Integer.parseInt(rowsAttr.getValue()), Integer.parseInt(columnsAttr.getValue())});
+            iterable.dimensions(new int[] {Integer.parseInt(rowsAttr), Integer.parseInt(columnsAttr)});
         }
-        XMLEvent event = nextEvent(">iter ");
-        while (event.isEndElement() == false) {
-            if (event.isStartElement()) {
-                StartElement start = event.asStartElement();
-                QName expectedType = iterable.category() == SerCategory.MAP ? ENTRY_QNAME : ITEM_QNAME;
-                if (start.getName().equals(expectedType) == false) {
-                    throw new IllegalArgumentException("Expected '" + expectedType.getLocalPart() + "' but found '" + start.getName() + "'");
+        int event = nextEvent(">iter ");
+        while (event != END_ELEMENT) {
+            if (event == START_ELEMENT) {
+                String expectedType = iterable.category() == SerCategory.MAP ? ENTRY : ITEM;
+                if (expectedType.equals(reader.getLocalName()) == false) {
+                    throw new IllegalArgumentException("Expected '" + expectedType + "' but found '" + reader.getLocalName() + "'");
                 }
                 int count = 1;
                 Object key = null;
                 Object column = null;
                 Object value = null;
                 if (iterable.category() == SerCategory.COUNTED) {
-                    Attribute countAttr = start.getAttributeByName(COUNT_QNAME);
+                    String countAttr = reader.getAttributeValue(null, COUNT);
                     if (countAttr != null) {
-                        count = Integer.parseInt(countAttr.getValue());
+                        count = Integer.parseInt(countAttr);
                     }
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                     
                 } else if (iterable.category() == SerCategory.TABLE || iterable.category() == SerCategory.GRID) {
-                    Attribute rowAttr = start.getAttributeByName(ROW_QNAME);
-                    Attribute colAttr = start.getAttributeByName(COL_QNAME);
-                    if (rowAttr == null || colAttr == null) {
+                    String rowStr = reader.getAttributeValue(null, ROW);
+                    String colStr = reader.getAttributeValue(null, COL);
+                    if (rowStr == null || colStr == null) {
                         throw new IllegalArgumentException("Unable to read table as row/col attribute missing");
                     }
-                    String rowStr = rowAttr.getValue();
                     if (iterable.keyType() != null) {
                         key = settings.getConverter().convertFromString(iterable.keyType(), rowStr);
                     } else {
                         key = rowStr;
                     }
-                    String colStr = colAttr.getValue();
                     if (iterable.columnType() != null) {
                         column = settings.getConverter().convertFromString(iterable.columnType(), colStr);
                     } else {
                         column = colStr;
                     }
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                     
                 } else if (iterable.category() == SerCategory.MAP) {
-                    Attribute keyAttr = start.getAttributeByName(KEY_QNAME);
-                    if (keyAttr != null) {
+                    String keyStr = reader.getAttributeValue(null, KEY);
+                    if (keyStr != null) {
                         // item is value with a key attribute
-                        String keyStr = keyAttr.getValue();
                         if (iterable.keyType() != null) {
                             key = settings.getConverter().convertFromString(iterable.keyType(), keyStr);
                         } else {
                             key = keyStr;
                         }
-                        value = parseValue(iterable, start);
+                        value = parseValue(iterable);
                         
                     } else {
                         // two items nested in this entry
                         event = nextEvent(">>map ");
                         int loop = 0;
-                        while (event.isEndElement() == false) {
-                            if (event.isStartElement()) {
-                                start = event.asStartElement();
-                                if (start.getName().equals(ITEM_QNAME) == false) {
-                                    throw new IllegalArgumentException("Expected 'item' but found '" + start.getName() + "'");
+                        while (event != END_ELEMENT) {
+                            if (event == START_ELEMENT) {
+                                if (ITEM.equals(reader.getLocalName()) == false) {
+                                    throw new IllegalArgumentException("Expected 'item' but found '" + reader.getLocalName() + "'");
                                 }
                                 if (key == null) {
-                                    key = parseKey(iterable, start);
+                                    key = parseKey(iterable);
                                 } else {
-                                    value = parseValue(iterable, start);
+                                    value = parseValue(iterable);
                                 }
                                 loop++;
                             }
@@ -408,7 +644,7 @@ public class JodaBeanXmlReader {
                     }                    
                     
                 } else {  // COLLECTION
-                    value = parseValue(iterable, start);
+                    value = parseValue(iterable);
                 }
                 iterable.add(key, column, value, count);
             }
@@ -417,9 +653,10 @@ public class JodaBeanXmlReader {
         return iterable.build();
     }
 
-    private Object parseKey(final SerIterable iterable, StartElement start) throws Exception {
+    // reader must be at StartElement
+    private Object parseKey(final SerIterable iterable) throws Exception {
         // type
-        Class<?> childType = parseTypeAttribute(start, iterable.keyType());
+        Class<?> childType = parseTypeAttribute(iterable.keyType());
         if (Bean.class.isAssignableFrom(childType) || settings.getConverter().isConvertible(childType)) {
             return parseBean(childType);
         } else if (childType.isAssignableFrom(String.class)) {
@@ -429,35 +666,36 @@ public class JodaBeanXmlReader {
         }
     }
 
-    private Object parseValue(final SerIterable iterable, StartElement start) throws Exception {
+    // reader must be at StartElement
+    private Object parseValue(final SerIterable iterable) throws Exception {
         // null
         Object value;
-        Attribute nullAttr = start.getAttributeByName(NULL_QNAME);
+        String nullAttr = reader.getAttributeValue(null, NULL);
         if (nullAttr != null) {
-            if (nullAttr.getValue().equals("true") == false) {
+            if (nullAttr.equals("true") == false) {
                 throw new IllegalArgumentException("Unexpected value for null attribute");
             }
             advanceAndParseText();  // move to end tag and ignore any text
             value = null;
         } else {
             // type
-            Class<?> childType = parseTypeAttribute(start, iterable.valueType());
+            Class<?> childType = parseTypeAttribute(iterable.valueType());
             if (Bean.class.isAssignableFrom(childType)) {
                 value = parseBean(childType);
             } else {
                 // try deep generic parameters
                 SerIterable childIterable = settings.getIteratorFactory().createIterable(iterable);
                 if (childIterable != null) {
-                    value = parseIterable(start, childIterable);
+                    value = parseIterable(childIterable);
                 } else {
                     // metatype
-                    Attribute metaTypeAttr = start.getAttributeByName(METATYPE_QNAME);
+                    String metaTypeAttr = reader.getAttributeValue(null, METATYPE);
                     if (metaTypeAttr != null) {
-                        childIterable = settings.getIteratorFactory().createIterable(metaTypeAttr.getValue(), settings, knownTypes);
+                        childIterable = settings.getIteratorFactory().createIterable(metaTypeAttr, settings, knownTypes);
                         if (childIterable == null) {
                             throw new IllegalArgumentException("Invalid metaType");
                         }
-                        value = parseIterable(start, childIterable);
+                        value = parseIterable(childIterable);
                     } else {
                         String text = advanceAndParseText();
                         value = settings.getConverter().convertFromString(childType, text);
@@ -469,46 +707,81 @@ public class JodaBeanXmlReader {
     }
 
     //-----------------------------------------------------------------------
-    private Class<?> parseTypeAttribute(StartElement start, Class<?> defaultType) throws ClassNotFoundException {
-        Attribute typeAttr = start.getAttributeByName(TYPE_QNAME);
-        if (typeAttr == null) {
+    // reader must be at StartElement
+    private Class<?> parseTypeAttribute(Class<?> defaultType) throws ClassNotFoundException {
+        String typeStr = reader.getAttributeValue(null, TYPE);
+        if (typeStr == null) {
             return (defaultType == Object.class ? String.class : defaultType);
         }
-        String typeStr = typeAttr.getValue();
         return settings.getDeserializers().decodeType(typeStr, settings, basePackage, knownTypes, defaultType);
     }
 
     // reader can be anywhere, but normally at StartDocument
-    private StartElement advanceToStartElement() throws Exception {
+    private void advanceToStartElement() throws Exception {
         while (reader.hasNext()) {
-            XMLEvent event = nextEvent("advnc ");
-            if (event.isStartElement()) {
-                return event.asStartElement();
+            if (nextEvent("advnc ") == START_ELEMENT) {
+                return;
             }
         }
         throw new IllegalArgumentException("Unexpected end of document");
     }
 
+    // reader must be at StartElement, moves to the matching EndElement
+    private void skipElement() throws Exception {
+        int depth = 0;
+        int event = nextEvent(" skip ");
+        while (event != END_ELEMENT || depth > 0) {
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+            event = nextEvent(" skip ");
+        }
+    }
+
+    // moves to the next StartElement or EndElement, ignoring text and comments
+    private int nextElementEvent(String location) throws Exception {
+        int event = nextEvent(location);
+        while (event != START_ELEMENT && event != END_ELEMENT) {
+            if (event == END_DOCUMENT) {
+                throw new IllegalArgumentException("Unexpected end of document");
+            }
+            event = nextEvent(location);
+        }
+        return event;
+    }
+
     // reader must be at StartElement
     private String advanceAndParseText() throws Exception {
         StringBuilder buf = new StringBuilder();
         while (reader.hasNext()) {
-            XMLEvent event = nextEvent("text  ");
-            if (event.isCharacters()) {
-                buf.append(event.asCharacters().getData());
-            } else if (event.isEndElement()) {
+            int event = nextEvent("text  ");
+            if (isCharacters(event)) {
+                appendText(buf);
+            } else if (event == END_ELEMENT) {
                 return buf.toString();
-            } else if (event.isStartElement()) {
+            } else if (event == START_ELEMENT) {
                 throw new IllegalArgumentException("Unexpected start tag");
             }
         }
         throw new IllegalArgumentException("Unexpected end of document");
     }
 
+    // checks if the event is text
+    private static boolean isCharacters(int event) {
+        return event == CHARACTERS || event == CDATA || event == SPACE;
+    }
+
+    // reader must be at text, appends the text without creating a string
+    private void appendText(StringBuilder buf) {
+        buf.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+    }
+
     // provide for debugging
-    private XMLEvent nextEvent(String location) throws Exception {
-        XMLEvent event = reader.nextEvent();
-//        System.out.println(location + event.toString().replace('\n', ' ') + " " + event.getClass().getSimpleName());
+    private int nextEvent(String location) throws Exception {
+        int event = reader.next();
+//        System.out.println(location + event + " " + (reader.hasName() ? reader.getLocalName() : ""));
         return event;
     }
 
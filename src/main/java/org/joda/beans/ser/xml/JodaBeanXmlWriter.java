@@ -29,16 +29,22 @@ import static org.joda.beans.ser.xml.JodaBeanXml.ROWS;
 import static org.joda.beans.ser.xml.JodaBeanXml.TYPE;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.joda.beans.Bean;
+import org.joda.beans.DynamicMetaBean;
 import org.joda.beans.MetaProperty;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerCategory;
 import org.joda.beans.ser.SerIterator;
 import org.joda.beans.ser.SerOptional;
 import org.joda.beans.ser.SerTypeMapper;
+import org.joda.beans.ser.Utf8Appendable;
 import org.joda.convert.StringConverter;
 
 /**
@@ -68,6 +74,46 @@ import org.joda.convert.StringConverter;
  */
 public class JodaBeanXmlWriter {
 
+    /**
+     * The cache of tags, keyed by meta-property.
+     * A tag is only encoded once it has been written as UTF-8 bytes.
+     * Properties of a dynamic meta-bean are not cached, as their names are unbounded.
+     */
+    private static final ConcurrentMap<MetaProperty<?>, Tag> TAGS = new ConcurrentHashMap<>();
+    /**
+     * The bean tag.
+     */
+    private static final Tag BEAN_TAG = new Tag(BEAN, true);
+    /**
+     * The entry tag.
+     */
+    private static final Tag ENTRY_TAG = new Tag(ENTRY, true);
+    /**
+     * The item tag.
+     */
+    private static final Tag ITEM_TAG = new Tag(ITEM, true);
+    /**
+     * The ASCII characters that must be escaped in element text, indexed by character.
+     * Invalid control characters are included, so that they are reported.
+     */
+    private static final boolean[] ESCAPE_TEXT = new boolean[128];
+    /**
+     * The ASCII characters that must be escaped in attribute values, indexed by character.
+     */
+    private static final boolean[] ESCAPE_ATTRIBUTE = new boolean[128];
+    static {
+        for (int i = 0; i < 32; i++) {
+            ESCAPE_TEXT[i] = (i != '\t' && i != '\n' && i != '\r');
+            ESCAPE_ATTRIBUTE[i] = true;
+        }
+        for (char ch : new char[] {'&', '<', '>'}) {
+            ESCAPE_TEXT[ch] = true;
+            ESCAPE_ATTRIBUTE[ch] = true;
+        }
+        ESCAPE_ATTRIBUTE['"'] = true;
+        ESCAPE_ATTRIBUTE['\''] = true;
+    }
+
     /**
      * The settings to use.
      */
@@ -80,6 +126,14 @@ public class JodaBeanXmlWriter {
      * The location to output to.
      */
     private Appendable output;
+    /**
+     * The location to output to, if writing UTF-8 bytes, null otherwise.
+     */
+    private Utf8Appendable utf8Output;
+    /**
+     * The attributes of the current element, reused as each element is written before the next.
+     */
+    private final StringBuilder attributes = new StringBuilder(32);
     /**
      * The root bean.
      */
@@ -195,18 +249,54 @@ public class JodaBeanXmlWriter {
             throw new NullPointerException("bean");
         }
         this.output = output;
+        this.utf8Output = (output instanceof Utf8Appendable ? (Utf8Appendable) output : null);
         this.rootBean = bean;
         this.basePackage = (rootType ? bean.getClass().getPackage().getName() + "." : null);
         
         String type = rootBean.getClass().getName();
         writeHeader();
-        output.append('<').append(BEAN);
+        appendStartTag(BEAN_TAG);
         if (rootType) {
             appendAttribute(output, TYPE, type);
         }
         output.append('>').append(settings.getNewLine());
         writeBean(rootBean, settings.getIndent());
-        output.append('<').append('/').append(BEAN).append('>').append(settings.getNewLine());
+        appendEndTag(BEAN_TAG);
+        output.append(settings.getNewLine());
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes.
+     * <p>
+     * The type of the bean will be set in the message.
+     * The bytes are encoded directly, without a {@code Writer}, using a bounded buffer,
+     * thus the document is never held in memory.
+     * The stream is flushed but not closed.
+     *
+     * @param bean  the bean to output, not null
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, OutputStream output) throws IOException {
+        write(bean, true, output);
+    }
+
+    /**
+     * Writes the bean to the {@code OutputStream} as UTF-8 bytes.
+     * <p>
+     * The bytes are encoded directly, without a {@code Writer}, using a bounded buffer,
+     * thus the document is never held in memory.
+     * The stream is flushed but not closed.
+     *
+     * @param bean  the bean to output, not null
+     * @param rootType  true to output the root type
+     * @param output  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    public void write(Bean bean, boolean rootType, OutputStream output) throws IOException {
+        Utf8Appendable appendable = new Utf8Appendable(output);
+        write(bean, rootType, appendable);
+        appendable.flush();
     }
 
     private void writeHeader() throws IOException {
@@ -228,20 +318,20 @@ public class JodaBeanXmlWriter {
             if (prop.style().isSerializable() || (prop.style().isDerived() && settings.isIncludeDerived())) {
                 Object value = SerOptional.extractValue(prop, bean);
                 if (value != null) {
-                    String propName = prop.name();
+                    Tag tag = tag(prop);
                     Class<?> propType = SerOptional.extractType(prop, bean.getClass());
                     if (value instanceof Bean) {
                         if (settings.getConverter().isConvertible(value.getClass())) {
-                            writeSimple(currentIndent, propName, new StringBuilder(), propType, value);
+                            writeSimple(currentIndent, tag, attributes(), propType, value);
                         } else {
-                            writeBean(currentIndent, propName, new StringBuilder(), propType, (Bean) value);
+                            writeBean(currentIndent, tag, attributes(), propType, (Bean) value);
                         }
                     } else {
                         SerIterator itemIterator = settings.getIteratorFactory().create(value, prop, bean.getClass());
                         if (itemIterator != null) {
-                            writeElements(currentIndent, propName, new StringBuilder(), itemIterator);
+                            writeElements(currentIndent, tag, attributes(), itemIterator);
                         } else {
-                            writeSimple(currentIndent, propName, new StringBuilder(), propType, value);
+                            writeSimple(currentIndent, tag, attributes(), propType, value);
                         }
                     }
                 }
@@ -250,11 +340,13 @@ public class JodaBeanXmlWriter {
     }
 
     //-----------------------------------------------------------------------
-    private void writeBean(String currentIndent, String tagName, StringBuilder attrs, Class<?> propType, Bean value) throws IOException {
+    private void writeBean(String currentIndent, Tag tag, StringBuilder attrs, Class<?> propType, Bean value) throws IOException {
         if (value == null) {
             throw new IllegalArgumentException("Bean cannot be null");
         }
-        output.append(currentIndent).append('<').append(tagName).append(attrs);
+        output.append(currentIndent);
+        appendStartTag(tag);
+        output.append(attrs);
         if (value.getClass() != propType) {
             String typeStr = SerTypeMapper.encodeType(value.getClass(), settings, basePackage, knownTypes);
             appendAttribute(output, TYPE, typeStr);
@@ -262,14 +354,16 @@ public class JodaBeanXmlWriter {
         if (willWriteBean(value)) {
             output.append('>').append(settings.getNewLine());
             writeBean(value, currentIndent + settings.getIndent());
-            output.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+            output.append(currentIndent);
+            appendEndTag(tag);
+            output.append(settings.getNewLine());
         } else {
             output.append('/').append('>').append(settings.getNewLine());
         }
     }
 
     //-----------------------------------------------------------------------
-    private void writeElements(String currentIndent, String tagName, StringBuilder attrs, SerIterator itemIterator) throws IOException {
+    private void writeElements(String currentIndent, Tag tag, StringBuilder attrs, SerIterator itemIterator) throws IOException {
         if (itemIterator.metaTypeRequired()) {
             appendAttribute(attrs, METATYPE, itemIterator.metaTypeName());
         }
@@ -277,12 +371,16 @@ public class JodaBeanXmlWriter {
             appendAttribute(attrs, ROWS, Integer.toString(itemIterator.dimensionSize(0)));
             appendAttribute(attrs, COLS, Integer.toString(itemIterator.dimensionSize(1)));
         }
+        output.append(currentIndent);
+        appendStartTag(tag);
         if (itemIterator.size() == 0) {
-            output.append(currentIndent).append('<').append(tagName).append(attrs).append('/').append('>').append(settings.getNewLine());
+            output.append(attrs).append('/').append('>').append(settings.getNewLine());
         } else {
-            output.append(currentIndent).append('<').append(tagName).append(attrs).append('>').append(settings.getNewLine());
+            output.append(attrs).append('>').append(settings.getNewLine());
             writeElements(currentIndent + settings.getIndent(), itemIterator);
-            output.append(currentIndent).append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+            output.append(currentIndent);
+            appendEndTag(tag);
+            output.append(settings.getNewLine());
         }
     }
 
@@ -314,29 +412,33 @@ public class JodaBeanXmlWriter {
         // output each item
         while (itemIterator.hasNext()) {
             itemIterator.next();
-            StringBuilder attr = new StringBuilder(32);
+            StringBuilder attr = attributes();
             if (keyConverter != null) {
                 String keyStr = convertToString(keyConverter, itemIterator.key(), "map key");
-                appendAttribute(attr, KEY, keyStr);
+                appendEncodedAttribute(attr, KEY, keyStr);
             }
             if (rowConverter != null) {
                 String rowStr = convertToString(rowConverter, itemIterator.key(), "table row");
-                appendAttribute(attr, ROW, rowStr);
+                appendEncodedAttribute(attr, ROW, rowStr);
                 String colStr = convertToString(columnConverter, itemIterator.column(), "table column");
-                appendAttribute(attr, COL, colStr);
+                appendEncodedAttribute(attr, COL, colStr);
             }
             if (itemIterator.count() != 1) {
                 appendAttribute(attr, COUNT, Integer.toString(itemIterator.count()));
             }
             if (keyBean) {
                 Object key = itemIterator.key();
-                output.append(currentIndent).append('<').append(ENTRY).append(attr).append('>').append(settings.getNewLine());
+                output.append(currentIndent);
+                appendStartTag(ENTRY_TAG);
+                output.append(attr).append('>').append(settings.getNewLine());
                 writeKeyElement(currentIndent + settings.getIndent(), key, itemIterator);
-                writeValueElement(currentIndent + settings.getIndent(), ITEM, new StringBuilder(), itemIterator);
-                output.append(currentIndent).append('<').append('/').append(ENTRY).append('>').append(settings.getNewLine());
+                writeValueElement(currentIndent + settings.getIndent(), ITEM_TAG, attributes(), itemIterator);
+                output.append(currentIndent);
+                appendEndTag(ENTRY_TAG);
+                output.append(settings.getNewLine());
             } else {
-                String tagName = itemIterator.category() == SerCategory.MAP ? ENTRY : ITEM;
-                writeValueElement(currentIndent, tagName, attr, itemIterator);
+                Tag tag = itemIterator.category() == SerCategory.MAP ? ENTRY_TAG : ITEM_TAG;
+                writeValueElement(currentIndent, tag, attr, itemIterator);
             }
         }
     }
@@ -345,7 +447,7 @@ public class JodaBeanXmlWriter {
         if (obj == null) {
             throw new IllegalArgumentException("Unable to write " + description + " as it cannot be null: " + obj);
         }
-        String str = encodeAttribute(converter.convertToString(obj));
+        String str = converter.convertToString(obj);
         if (str == null) {
             throw new IllegalArgumentException("Unable to write " + description + " as it cannot be a null string: " + obj);
         }
@@ -358,43 +460,45 @@ public class JodaBeanXmlWriter {
         }
         // if key type is known and convertible use short key format
         if (settings.getConverter().isConvertible(itemIterator.keyType())) {
-            writeSimple(currentIndent, ITEM, new StringBuilder(), Object.class, key);
+            writeSimple(currentIndent, ITEM_TAG, attributes(), Object.class, key);
         } else if (key instanceof Bean) {
-            writeBean(currentIndent, ITEM, new StringBuilder(), itemIterator.keyType(), (Bean) key);
+            writeBean(currentIndent, ITEM_TAG, attributes(), itemIterator.keyType(), (Bean) key);
         } else {
             // this case covers where the key type is not known, such as an Object meta-property
             try {
-                writeSimple(currentIndent, ITEM, new StringBuilder(), Object.class, key);
+                writeSimple(currentIndent, ITEM_TAG, attributes(), Object.class, key);
             } catch (RuntimeException ex) {
                 throw new IllegalArgumentException("Unable to write map as declared key type is neither a bean nor a simple type: " + itemIterator.keyType().getName(), ex);
             }
         }
     }
 
-    private void writeValueElement(String currentIndent, String tagName, StringBuilder attrs, SerIterator itemIterator) throws IOException {
+    private void writeValueElement(String currentIndent, Tag tag, StringBuilder attrs, SerIterator itemIterator) throws IOException {
         Object value = itemIterator.value();
         Class<?> valueType = itemIterator.valueType();
         if (value == null) {
             appendAttribute(attrs, NULL, "true");
-            output.append(currentIndent).append('<').append(tagName).append(attrs).append("/>").append(settings.getNewLine());
+            output.append(currentIndent);
+            appendStartTag(tag);
+            output.append(attrs).append("/>").append(settings.getNewLine());
         } else if (value instanceof Bean) {
             if (settings.getConverter().isConvertible(value.getClass())) {
-                writeSimple(currentIndent, tagName, attrs, valueType, value);
+                writeSimple(currentIndent, tag, attrs, valueType, value);
             } else {
-                writeBean(currentIndent, tagName, attrs, valueType, (Bean) value);
+                writeBean(currentIndent, tag, attrs, valueType, (Bean) value);
             }
         } else {
             SerIterator childIterator = settings.getIteratorFactory().createChild(value, itemIterator);
             if (childIterator != null) {
-                writeElements(currentIndent, tagName, attrs, childIterator);
+                writeElements(currentIndent, tag, attrs, childIterator);
             } else {
-                writeSimple(currentIndent, tagName, attrs, valueType, value);
+                writeSimple(currentIndent, tag, attrs, valueType, value);
             }
         }
     }
 
     //-----------------------------------------------------------------------
-    private void writeSimple(String currentIndent, String tagName, StringBuilder attrs, Class<?> declaredType, Object value) throws IOException {
+    private void writeSimple(String currentIndent, Tag tag, StringBuilder attrs, Class<?> declaredType, Object value) throws IOException {
         Class<?> effectiveType;
         if (declaredType == Object.class) {
             Class<?> realType = value.getClass();
@@ -417,17 +521,29 @@ public class JodaBeanXmlWriter {
             if (converted == null) {
                 throw new IllegalArgumentException("Unable to write because converter returned a null string: " + value);
             }
-            output.append(currentIndent).append('<').append(tagName).append(attrs).append('>');
+            output.append(currentIndent);
+            appendStartTag(tag);
+            output.append(attrs).append('>');
             appendEncoded(converted);
-            output.append('<').append('/').append(tagName).append('>').append(settings.getNewLine());
+            appendEndTag(tag);
+            output.append(settings.getNewLine());
         } catch (RuntimeException ex) {
             throw new IllegalArgumentException("Unable to convert type " + effectiveType.getName() + " declared as " + declaredType.getName(), ex);
         }
     }
 
+    // appends the text, escaped, in bulk where possible as most text needs no escaping
     private void appendEncoded(String text) throws IOException {
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.charAt(i);
+        int length = text.length();
+        int index = indexOfEscape(text, 0, ESCAPE_TEXT);
+        if (index == length) {
+            output.append(text);
+            return;
+        }
+        int start = 0;
+        while (index < length) {
+            output.append(text, start, index);
+            char ch = text.charAt(index);
             switch (ch) {
                 case '&':
                     output.append("&amp;");
@@ -438,70 +554,146 @@ public class JodaBeanXmlWriter {
                 case '>':
                     output.append("&gt;");
                     break;
-                case '\t':
-                case '\n':
-                case '\r':
-                    output.append(ch);
-                    break;
                 default:
-                    if ((int) ch < 32) {
-                        throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
-                    }
-                    output.append(ch);
-                    break;
+                    throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
+            }
+            start = index + 1;
+            index = indexOfEscape(text, start, ESCAPE_TEXT);
+        }
+        output.append(text, start, length);
+    }
+
+    // finds the index of the first character that must be escaped, the length if none
+    private static int indexOfEscape(String text, int start, boolean[] escapes) {
+        int length = text.length();
+        for (int i = start; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch < 128 && escapes[ch]) {
+                return i;
             }
         }
+        return length;
     }
 
     //-----------------------------------------------------------------------
+    // appends the start of the start tag, without the closing '>'
+    private void appendStartTag(Tag tag) throws IOException {
+        if (utf8Output != null) {
+            utf8Output.write(tag.encodedStart);
+        } else {
+            output.append('<').append(tag.name);
+        }
+    }
+
+    // appends the end tag
+    private void appendEndTag(Tag tag) throws IOException {
+        if (utf8Output != null) {
+            utf8Output.write(tag.encodedEnd);
+        } else {
+            output.append('<').append('/').append(tag.name).append('>');
+        }
+    }
+
+    // gets the attributes builder, cleared ready for the next element
+    private StringBuilder attributes() {
+        attributes.setLength(0);
+        return attributes;
+    }
+
+    // gets the tag for the property, only encoding it when writing UTF-8 bytes
+    private Tag tag(MetaProperty<?> prop) {
+        boolean encode = (utf8Output != null);
+        Tag tag = TAGS.get(prop);
+        if (tag != null && (encode == false || tag.encodedStart != null)) {
+            return tag;
+        }
+        tag = new Tag(prop.name(), encode);
+        if ((prop.metaBean() instanceof DynamicMetaBean) == false) {
+            if (encode) {
+                // replaces any tag that is not encoded
+                TAGS.put(prop, tag);
+            } else {
+                TAGS.putIfAbsent(prop, tag);
+            }
+        }
+        return tag;
+    }
+
     private void appendAttribute(Appendable buf, String attrName, String encodedValue) throws IOException {
         buf.append(' ').append(attrName).append('=').append('\"').append(encodedValue).append('\"');
     }
 
-    private String encodeAttribute(String text) {
-        if (text == null) {
-            return null;
-        }
-        return appendEncodedAttribute(new StringBuilder(text.length() + 16), text).toString();
+    private void appendEncodedAttribute(StringBuilder buf, String attrName, String value) {
+        buf.append(' ').append(attrName).append('=').append('\"');
+        appendEncodedAttribute(buf, value);
+        buf.append('\"');
     }
 
-    private StringBuilder appendEncodedAttribute(StringBuilder builder, String text) {
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.charAt(i);
+    // appends the attribute value, escaped, in bulk where possible as most values need no escaping
+    private void appendEncodedAttribute(StringBuilder buf, String text) {
+        int length = text.length();
+        int start = 0;
+        int index = indexOfEscape(text, 0, ESCAPE_ATTRIBUTE);
+        while (index < length) {
+            buf.append(text, start, index);
+            char ch = text.charAt(index);
             switch (ch) {
                 case '&':
-                    builder.append("&amp;");
+                    buf.append("&amp;");
                     break;
                 case '<':
-                    builder.append("&lt;");
+                    buf.append("&lt;");
                     break;
                 case '>':
-                    builder.append("&gt;");
+                    buf.append("&gt;");
                     break;
                 case '"':
-                    builder.append("&quot;");
+                    buf.append("&quot;");
                     break;
                 case '\'':
-                    builder.append("&apos;");
+                    buf.append("&apos;");
                     break;
                 case '\t':
-                    builder.append("&#09;");
+                    buf.append("&#09;");
                     break;
                 case '\n':
-                    builder.append("&#0A;");
+                    buf.append("&#x0A;");
                     break;
                 case '\r':
-                    builder.append("&#0D;");
+                    buf.append("&#x0D;");
                     break;
                 default:
-                    if ((int) ch < 32) {
-                        throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
-                    }
-                    builder.append(ch);
-                    break;
+                    throw new IllegalArgumentException("Invalid character for XML: " + ((int) ch));
             }
+            start = index + 1;
+            index = indexOfEscape(text, start, ESCAPE_ATTRIBUTE);
+        }
+        buf.append(text, start, length);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An element tag, with the start and end optionally pre-encoded in UTF-8.
+     */
+    private static final class Tag {
+        /**
+         * The tag name.
+         */
+        private final String name;
+        /**
+         * The encoded start of the start tag, without the closing '>', null if not encoded.
+         */
+        private final byte[] encodedStart;
+        /**
+         * The encoded end tag, null if not encoded.
+         */
+        private final byte[] encodedEnd;
+
+        private Tag(String name, boolean encode) {
+            this.name = name;
+            this.encodedStart = (encode ? ("<" + name).getBytes(StandardCharsets.UTF_8) : null);
+            this.encodedEnd = (encode ? ("</" + name + ">").getBytes(StandardCharsets.UTF_8) : null);
         }
-        return builder;
     }
 
 }
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2001-present Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.beans.ser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Test {@link Utf8Appendable}.
+ */
+public class TestUtf8Appendable {
+
+    @Test
+    public void test_utf8Appendable() throws IOException {
+        String text = "abc\u00e9\u07ff\u0800\u20ac\uffff\ud800\udc00\ud83d\ude00\udbff\udfffz";
+        for (int bufferSize = 4; bufferSize < 12; bufferSize++) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Utf8Appendable appendable = new Utf8Appendable(baos, bufferSize);
+            appendable.append(text);
+            appendable.append(text, 1, 5);
+            appendable.append('\ud83d');
+            appendable.append('\ude00');
+            appendable.append(new StringBuilder(text));
+            appendable.flush();
+            String expected = text + text.substring(1, 5) + "\ud83d\ude00" + text;
+            assertEquals(new String(baos.toByteArray(), StandardCharsets.UTF_8), expected);
+        }
+    }
+
+    @Test
+    public void test_utf8Appendable_unpairedSurrogates() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Utf8Appendable appendable = new Utf8Appendable(baos);
+        String text = "a\udc00b\ud800c\ud800";
+        appendable.append(text);
+        appendable.flush();
+        assertEquals(new String(baos.toByteArray(), StandardCharsets.UTF_8), "a?b?c?");
+        assertEquals(new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), "a?b?c?");
+    }
+
+    @Test
+    public void test_write() throws IOException {
+        byte[] encoded = "<caf\u00e9>".getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 4; bufferSize < 12; bufferSize++) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Utf8Appendable appendable = new Utf8Appendable(baos, bufferSize);
+            appendable.append("ab");
+            appendable.write(encoded);
+            appendable.append('\ud800');
+            appendable.write(encoded);
+            appendable.flush();
+            assertEquals(new String(baos.toByteArray(), StandardCharsets.UTF_8), "ab<caf\u00e9>?<caf\u00e9>");
+        }
+    }
+
+}
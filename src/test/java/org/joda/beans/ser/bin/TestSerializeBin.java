@@ -16,14 +16,38 @@
 package org.joda.beans.ser.bin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.joda.beans.Bean;
+import org.joda.beans.MetaBean;
+import org.joda.beans.MetaProperty;
 import org.joda.beans.impl.flexi.FlexiBean;
 import org.joda.beans.sample.Address;
 import org.joda.beans.sample.Company;
@@ -31,14 +55,22 @@ import org.joda.beans.sample.ImmAddress;
 import org.joda.beans.sample.ImmDoubleFloat;
 import org.joda.beans.sample.ImmGuava;
 import org.joda.beans.sample.ImmOptional;
+import org.joda.beans.sample.ImmPerson;
 import org.joda.beans.sample.JodaConvertBean;
 import org.joda.beans.sample.JodaConvertWrapper;
 import org.joda.beans.sample.Person;
+import org.joda.beans.sample.SimpleName;
+import org.joda.beans.ser.DefaultDeserializer;
 import org.joda.beans.ser.JodaBeanSer;
+import org.joda.beans.ser.SerDeserializer;
+import org.joda.beans.ser.SerDeserializers;
 import org.joda.beans.ser.SerTestHelper;
 import org.joda.beans.test.BeanAssert;
 import org.junit.Test;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Test property roundtrip using binary.
  */
@@ -90,6 +122,910 @@ public class TestSerializeBin {
         BeanAssert.assertBeanEquals(bean, optional);
     }
 
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_write_buffer_reused() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        Address address2 = SerTestHelper.testAddress();
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(address);
+        byte[] expected2 = JodaBeanSer.COMPACT.binWriter().write(address2);
+
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        BinaryBuffer buffer = new BinaryBuffer(16);
+        writer.write(address, buffer);
+        assertEquals(buffer.size(), expected.length);
+        assertTrue(Arrays.equals(Arrays.copyOf(buffer.array(), buffer.size()), expected));
+        
+        buffer.reset();
+        writer.write(address2, buffer);
+        assertTrue(Arrays.equals(buffer.toByteArray(), expected2));
+        
+        buffer.reset();
+        writer.write(address, buffer);
+        assertTrue(Arrays.equals(buffer.toByteArray(), expected));
+        ImmAddress bean = (ImmAddress) JodaBeanSer.COMPACT.binReader().read(buffer.toByteArray());
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
+    @Test
+    public void test_write_stream_largeBean() throws IOException {
+        FlexiBean bean = new FlexiBean();
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            bean.set("key" + i, "value" + i);
+            buf.append("\u00e9\u00e8");
+        }
+        bean.set("bytes", new byte[20000]);
+        bean.set("text", buf.toString());
+        byte[] expected = JodaBeanSer.COMPACT.binWriter().write(bean);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        JodaBeanSer.COMPACT.binWriter().write(bean, baos);
+        assertTrue(Arrays.equals(baos.toByteArray(), expected));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_buffer_negativeCapacity() {
+        new BinaryBuffer(-1);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_writeIndexed() {
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED);
+        ImmOptional optional = SerTestHelper.testImmOptional();
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(writer.write(optional)), optional);
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(writer.write(collections)), collections);
+        Company company = new Company();
+        company.setCompanyName("Acme");
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(writer.write(company)), company);
+        Address address = SerTestHelper.testAddress();
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(writer.write(address)), address);
+    }
+
+    @Test
+    public void test_writeIndexed_repeatedBeans() {
+        Person person = new Person();
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            address.setCity("London");
+            person.getAddressList().add(address);
+        }
+        byte[] standard = JodaBeanSer.COMPACT.binWriter().write(person);
+        byte[] indexed = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(person);
+        assertEquals(indexed[1], 2);
+        assertTrue(indexed.length < standard.length * 2 / 3);
+        Person bean = JodaBeanSer.COMPACT.binReader().read(indexed, Person.class);
+        BeanAssert.assertBeanEquals(bean, person);
+
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("person", person);
+        byte[] flexiBytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(flexi);
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(flexiBytes), flexi);
+    }
+
+    @Test
+    public void test_writeIndexed_reused() {
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED);
+        ImmAddress address = SerTestHelper.testImmAddress();
+        byte[] first = writer.write(address);
+        byte[] second = writer.write(address);
+        assertTrue(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void test_readIndexed_skippedValueDefinesPropertyNames() {
+        Person person = new Person();
+        person.setForename("Stephen");
+        Address address = new Address();
+        address.setNumber(1);
+        address.setStreet("Main Street");
+        address.setCity("London");
+        person.getOtherAddressMap().put("home", address);
+        person.getAddressesList().add(Arrays.asList(address));
+        person.setMainAddress(address);
+        byte[] standard = JodaBeanSer.COMPACT.binWriter().write(person);
+        byte[] indexed = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(person);
+
+        // the first use of the address property names is inside the hidden property
+        JodaBeanSer settings = hidingOtherAddressMap();
+        person.getOtherAddressMap().clear();
+        BeanAssert.assertBeanEquals(settings.binReader().read(standard, Person.class), person);
+        BeanAssert.assertBeanEquals(settings.binReader().read(indexed, Person.class), person);
+    }
+
+    // settings with a deserializer that hides the 'otherAddressMap' property of Person
+    private static JodaBeanSer hidingOtherAddressMap() {
+        SerDeserializer hiding = new DefaultDeserializer() {
+            @Override
+            public MetaProperty<?> findMetaProperty(Class<?> beanType, MetaBean metaBean, String propertyName) {
+                return propertyName.equals("otherAddressMap") ? null : super.findMetaProperty(beanType, metaBean, propertyName);
+            }
+        };
+        return JodaBeanSer.COMPACT.withDeserializers(new SerDeserializers().register(Person.class, hiding));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_read_invalidPropertyIndex() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeByte(MsgPack.MIN_FIX_ARRAY + 2);
+            out.writeByte(2);
+            out.writeByte(MsgPack.MIN_FIX_MAP + 1);
+            out.writeByte(0);
+            out.writeByte(MsgPack.TRUE);
+        }
+        JodaBeanSer.COMPACT.binReader().read(baos.toByteArray(), FlexiBean.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_read_invalidVersion() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeByte(MsgPack.MIN_FIX_ARRAY + 2);
+            out.writeByte(3);
+            out.writeByte(MsgPack.MIN_FIX_MAP);
+        }
+        JodaBeanSer.COMPACT.binReader().read(baos.toByteArray(), FlexiBean.class);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readElements_stream() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        person.getOtherAddressMap().put("home", person.getAddressList().get(0));
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(person);
+            try (Stream<Address> stream = JodaBeanSer.COMPACT.binReader()
+                    .readElements(new ByteArrayInputStream(bytes), Person.class, "addressList", Address.class)) {
+                List<Address> list = stream.collect(Collectors.toList());
+                assertEquals(list, person.getAddressList());
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void test_readElements_indexed_skippedValueDefinesPropertyNames() {
+        Person person = new Person();
+        Address address = new Address();
+        address.setNumber(1);
+        address.setStreet("Main Street");
+        person.getOtherAddressMap().put("home", address);
+        person.getAddressesList().add(Arrays.asList(address, address));
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(person);
+        // the address property names are defined inside the skipped map and used by index in the list
+        for (JodaBeanSer settings : Arrays.asList(JodaBeanSer.COMPACT, hidingOtherAddressMap())) {
+            try (Stream<List> stream = settings.binReader()
+                    .readElements(ByteBuffer.wrap(bytes), Person.class, "addressesList", List.class)) {
+                assertEquals(stream.collect(Collectors.toList()), person.getAddressesList());
+            }
+        }
+    }
+
+    @Test
+    public void test_readElements_byteBuffer() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        ByteBuffer buffer = ByteBuffer.wrap(JodaBeanSer.COMPACT.binWriter().write(collections));
+        JodaBeanBinReader reader = JodaBeanSer.COMPACT.binReader();
+        try (Stream<String> stream = reader.readElements(buffer, Bean.class, "listInterface", String.class)) {
+            Iterator<String> it = stream.iterator();
+            assertEquals(it.next(), "A");
+            assertEquals(it.next(), "B");
+            assertFalse(it.hasNext());
+        }
+        assertTrue(buffer.position() > 0);
+        assertTrue(buffer.position() < buffer.limit());
+    }
+
+    @Test
+    public void test_readElements_propertyNotPresent() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(new Person());
+        try (Stream<Address> stream = JodaBeanSer.COMPACT.binReader()
+                .readElements(ByteBuffer.wrap(bytes), Person.class, "unknown", Address.class)) {
+            assertEquals(stream.count(), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_readElements_notCollection() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testCollections());
+        JodaBeanSer.COMPACT.binReader().readElements(ByteBuffer.wrap(bytes), ImmGuava.class, "map", String.class);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readProperties() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        for (int i = 0; i < 3; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        Address main = new Address();
+        main.setStreet("Main Street");
+        main.setCity("London");
+        person.setMainAddress(main);
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            byte[] bytes = JodaBeanSer.COMPACT.binWriter(format).write(person);
+            Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.binReader().readProperties(
+                    bytes, Person.class, ImmutableSet.of(Person.meta().mainAddress(), Person.meta().forename()));
+            assertEquals(map.size(), 2);
+            assertEquals(map.get(Person.meta().forename()), "Vince");
+            assertEquals(map.get(Person.meta().mainAddress()), main);
+        }
+    }
+
+    @Test
+    public void test_readProperties_stopsEarly() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        ByteBuffer buffer = ByteBuffer.wrap(JodaBeanSer.COMPACT.binWriter().write(collections));
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.binReader().readProperties(
+                buffer, Bean.class, ImmutableSet.<MetaProperty<?>>of(ImmGuava.meta().listInterface()));
+        assertEquals(map.size(), 1);
+        assertEquals(map.get(ImmGuava.meta().listInterface()), collections.getListInterface());
+        assertTrue(buffer.position() < buffer.limit());
+    }
+
+    @Test
+    public void test_readProperties_aliased() {
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("firstName", "A");
+        flexi.set("givenName", "B");
+        flexi.set("unknown", "C");
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            ByteBuffer buffer = ByteBuffer.wrap(JodaBeanSer.COMPACT.binWriter(format).write(flexi, false));
+            Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.binReader().readProperties(
+                    buffer, SimpleName.class, ImmutableSet.of(SimpleName.meta().forename(), SimpleName.meta().surname()));
+            assertEquals(map.size(), 2);
+            assertEquals(map.get(SimpleName.meta().forename()), "A");
+            assertEquals(map.get(SimpleName.meta().surname()), "B");
+            assertTrue(buffer.position() < buffer.limit());
+        }
+    }
+
+    @Test
+    public void test_readProperties_optional() {
+        ImmOptional optional = ImmOptional.builder().optString(Optional.of("A")).build();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(optional);
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.binReader().readProperties(
+                new ByteArrayInputStream(bytes), ImmOptional.class, ImmutableSet.of(ImmOptional.meta().optString()));
+        assertEquals(map.get(ImmOptional.meta().optString()), Optional.of("A"));
+    }
+
+    @Test
+    public void test_readProperties_propertyNotPresent() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(new Person());
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.binReader().readProperties(
+                bytes, Person.class, ImmutableSet.of(Person.meta().mainAddress()));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_readProperties_notBean() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(new Person());
+        JodaBeanSer.COMPACT.binReader().readProperties(bytes, String.class, ImmutableSet.of(Person.meta().forename()));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_writeElements_buffer() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.getAddressList().add(new Address());  // ignored
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            addresses.add(address);
+        }
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            BinaryBuffer buffer = new BinaryBuffer();
+            JodaBeanSer.COMPACT.binWriter(format).writeElements(person, "addressList", addresses.iterator(), buffer);
+            Person bean = JodaBeanSer.COMPACT.binReader().read(buffer.toByteArray(), Person.class);
+            assertEquals(bean.getForename(), "Vince");
+            assertEquals(bean.getAddressList(), addresses);
+        }
+    }
+
+    @Test
+    public void test_writeElements_channel() throws IOException {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        Path file = Files.createTempFile("joda-beans", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+                Iterator<String> elements = IntStream.range(0, 5000).mapToObj(i -> "Element " + i).iterator();
+                JodaBeanSer.COMPACT.binWriter().writeElements(collections, "list", elements, channel);
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.position(3);
+            @SuppressWarnings("unchecked")
+            ImmGuava<String> bean = JodaBeanSer.COMPACT.binReader().read(buffer, ImmGuava.class);
+            assertEquals(bean.getList().size(), 5000);
+            assertEquals(bean.getList().get(4999), "Element 4999");
+            assertEquals(bean.getMap(), collections.getMap());
+            assertEquals(buffer.remaining(), 0);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test_writeElements_empty() {
+        BinaryBuffer buffer = new BinaryBuffer();
+        JodaBeanSer.COMPACT.binWriter().writeElements(new Person(), "addressList", Collections.emptyIterator(), buffer);
+        Person bean = JodaBeanSer.COMPACT.binReader().read(buffer.toByteArray(), Person.class);
+        assertEquals(bean.getAddressList().size(), 0);
+    }
+
+    @Test
+    public void test_writeElements_sets() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        List<String> elements = Arrays.asList("C", "A", "B");
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            for (String propertyName : Arrays.asList("set", "sortedSet", "setInterface", "sortedSetInterface")) {
+                BinaryBuffer buffer = new BinaryBuffer();
+                JodaBeanSer.COMPACT.binWriter(format).writeElements(collections, propertyName, elements.iterator(), buffer);
+                ImmGuava<?> bean = JodaBeanSer.COMPACT.binReader().read(buffer.toByteArray(), ImmGuava.class);
+                assertEquals(bean.metaBean().metaProperty(propertyName).get(bean), ImmutableSet.copyOf(elements));
+                assertEquals(bean.getList(), collections.getList());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_writeElements_multiset() {
+        BinaryBuffer buffer = new BinaryBuffer();
+        JodaBeanSer.COMPACT.binWriter().writeElements(
+                SerTestHelper.testCollections(), "multiset", Arrays.asList("A", "A").iterator(), buffer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_writeElements_notCollection() {
+        BinaryBuffer buffer = new BinaryBuffer();
+        JodaBeanSer.COMPACT.binWriter().writeElements(new Person(), "forename", Collections.emptyIterator(), buffer);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_fileChannel_mapped() throws IOException {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        Path file = Files.createTempFile("joda-beans", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                JodaBeanSer.COMPACT.binWriter().write(address, channel);
+                assertEquals(channel.position(), channel.size());
+                JodaBeanSer.COMPACT.binWriter(JodaBeanBinFormat.INDEXED).write(collections, channel);
+                assertEquals(channel.position(), channel.size());
+            }
+            byte[] expected = JodaBeanSer.COMPACT.binWriter().write(address);
+            assertTrue(Arrays.equals(Arrays.copyOf(Files.readAllBytes(file), expected.length), expected));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                JodaBeanBinReader reader = JodaBeanSer.COMPACT.binReader();
+                BeanAssert.assertBeanEquals(reader.read(channel, ImmAddress.class), address);
+                assertEquals(channel.position(), expected.length);
+                BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.binReader().read(channel), collections);
+                assertEquals(channel.position(), channel.size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test_fileChannel_largeBean() throws IOException {
+        Person person = new Person();
+        for (int i = 0; i < 50_000; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        Path file = Files.createTempFile("joda-beans", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                JodaBeanSer.COMPACT.binWriter().write(person, channel);
+                assertTrue(channel.size() > 1024 * 1024);
+                assertEquals(channel.position(), channel.size());
+            }
+            byte[] expected = JodaBeanSer.COMPACT.binWriter().write(person);
+            assertTrue(Arrays.equals(Files.readAllBytes(file), expected));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test_fileChannel_segmented() throws IOException {
+        Person person = new Person();
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+            buf.append("Long text \u00e9 ");
+        }
+        person.setSurname(buf.toString());
+        person.getExtensions().set("double", 1.5d);
+        person.getExtensions().set("long", Long.MAX_VALUE);
+        Path file = Files.createTempFile("joda-beans", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                JodaBeanSer.COMPACT.binWriter().write(person, channel);
+                channel.position(0);
+                // small segments force values to cross segment boundaries
+                for (int segmentSize = 8; segmentSize < 40; segmentSize++) {
+                    channel.position(0);
+                    BinaryInput input = new BinaryInput.MappedInput(channel, segmentSize);
+                    Person bean = JodaBeanSer.COMPACT.binReader().read(input, Person.class);
+                    BeanAssert.assertBeanEquals(bean, person);
+                    assertEquals(channel.position(), channel.size());
+                }
+                channel.position(0);
+                try (Stream<Address> stream = JodaBeanSer.COMPACT.binReader()
+                        .readElements(channel, Person.class, "addressList", Address.class)) {
+                    assertEquals(stream.collect(Collectors.toList()), person.getAddressList());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // writes a container of addresses and people
+    private static List<Bean> containerBeans() {
+        List<Bean> beans = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ImmAddress address = ImmAddress.builder()
+                    .number(i)
+                    .street("Street " + i)
+                    .city("City")
+                    .owner(ImmPerson.builder().forename("Name").surname("Surname " + i).build())
+                    .build();
+            beans.add(i % 5 == 0 ? SerTestHelper.testAddress() : address);
+        }
+        return beans;
+    }
+
+    private static byte[] writeContainer(List<Bean> beans, JodaBeanBinFormat format, boolean writeIndex) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (JodaBeanBinContainerWriter writer = new JodaBeanBinContainerWriter(JodaBeanSer.COMPACT, format, writeIndex, baos)) {
+            for (int i = 0; i < beans.size(); i++) {
+                assertEquals(writer.write(beans.get(i)), i);
+            }
+            assertEquals(writer.size(), beans.size());
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void test_container_indexed() throws IOException {
+        List<Bean> beans = containerBeans();
+        byte[] bytes = writeContainer(beans, JodaBeanBinFormat.INDEXED, true);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes));
+        assertTrue(reader.isIndexed());
+        assertEquals(reader.size(), beans.size());
+        for (int i = beans.size() - 1; i >= 0; i -= 7) {
+            BeanAssert.assertBeanEquals(reader.read(i), beans.get(i));
+        }
+        assertEquals(reader.stream(Bean.class).count(), beans.size());
+        List<Bean> read = reader.stream(Bean.class).collect(Collectors.toList());
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(read.get(i), beans.get(i));
+        }
+    }
+
+    @Test
+    public void test_container_noIndex() throws IOException {
+        List<Bean> beans = containerBeans();
+        byte[] bytes = writeContainer(beans, JodaBeanBinFormat.STANDARD, false);
+        byte[] padded = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(padded.length);
+        buffer.put(padded).position(3);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, buffer);
+        assertFalse(reader.isIndexed());
+        assertEquals(reader.size(), beans.size());
+        assertEquals(buffer.position(), 3);
+        BeanAssert.assertBeanEquals(reader.read(5, Address.class), beans.get(5));
+        BeanAssert.assertBeanEquals(reader.read(49, ImmAddress.class), beans.get(49));
+        // each frame is a standard message
+        byte[] frame = JodaBeanSer.COMPACT.binWriter().write(beans.get(0));
+        assertEquals(bytes[0], (byte) 0xc6);
+        assertTrue(Arrays.equals(Arrays.copyOfRange(bytes, 5, 5 + frame.length), frame));
+    }
+
+    @Test
+    public void test_container_empty() throws IOException {
+        byte[] indexed = writeContainer(Collections.emptyList(), JodaBeanBinFormat.STANDARD, true);
+        assertEquals(indexed.length, 16);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(indexed));
+        assertTrue(reader.isIndexed());
+        assertEquals(reader.size(), 0);
+        byte[] plain = writeContainer(Collections.emptyList(), JodaBeanBinFormat.STANDARD, false);
+        reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(plain));
+        assertFalse(reader.isIndexed());
+        assertEquals(reader.size(), 0);
+    }
+
+    @Test
+    public void test_container_fileChannel() throws IOException {
+        List<Bean> beans = containerBeans();
+        byte[] bytes = writeContainer(beans, JodaBeanBinFormat.STANDARD, true);
+        Path file = Files.createTempFile("joda-beans", ".bin");
+        try {
+            Files.write(file, bytes);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, channel);
+                assertTrue(reader.isIndexed());
+                BeanAssert.assertBeanEquals(reader.read(17), beans.get(17));
+                // small segments force frames to cross segment boundaries
+                for (int segmentSize : new int[] {16, 100, 333, 1000}) {
+                    reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, channel, segmentSize);
+                    assertEquals(reader.size(), beans.size());
+                    for (int i = 0; i < beans.size(); i++) {
+                        BeanAssert.assertBeanEquals(reader.read(i), beans.get(i));
+                    }
+                }
+                assertEquals(channel.position(), 0);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test_container_parallel() throws Exception {
+        List<Bean> beans = new ArrayList<>(containerBeans());
+        for (int i = 0; i < 20; i++) {
+            beans.add(i * 3, SerTestHelper.testImmAddress());
+            beans.add(SerTestHelper.testCollections());
+        }
+        byte[] bytes = writeContainer(beans, JodaBeanBinFormat.INDEXED, true);
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int loop = 0; loop < 5; loop++) {
+                List<Bean> read = pool.submit(() -> reader.stream(Bean.class).parallel().collect(Collectors.toList())).get();
+                assertEquals(read.size(), beans.size());
+                for (int i = 0; i < beans.size(); i++) {
+                    BeanAssert.assertBeanEquals(read.get(i), beans.get(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        BeanAssert.assertBeanEquals(reader.read(0), beans.get(0));
+    }
+
+    @Test
+    public void test_container_unframedOffsets() {
+        List<Bean> beans = containerBeans();
+        BinaryBuffer buffer = new BinaryBuffer();
+        int[] offsets = new int[beans.size()];
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        for (int i = 0; i < beans.size(); i++) {
+            offsets[i] = buffer.size();
+            writer.write(beans.get(i), buffer);
+        }
+        JodaBeanBinContainerReader reader = new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, buffer.asByteBuffer(), offsets);
+        assertEquals(reader.size(), beans.size());
+        BeanAssert.assertBeanEquals(reader.read(49), beans.get(49));
+        List<Bean> read = reader.stream(Bean.class).parallel().collect(Collectors.toList());
+        for (int i = 0; i < beans.size(); i++) {
+            BeanAssert.assertBeanEquals(read.get(i), beans.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_container_unframedOffsets_notAscending() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testAddress());
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes), new int[] {0, 0});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_container_invalidIndex() throws IOException {
+        byte[] bytes = writeContainer(containerBeans(), JodaBeanBinFormat.STANDARD, true);
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes)).read(50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_container_truncated() throws IOException {
+        byte[] bytes = writeContainer(containerBeans(), JodaBeanBinFormat.STANDARD, false);
+        new JodaBeanBinContainerReader(JodaBeanSer.COMPACT, ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test_container_writeAfterClose() throws IOException {
+        JodaBeanBinContainerWriter writer = new JodaBeanBinContainerWriter(JodaBeanSer.COMPACT, new ByteArrayOutputStream());
+        writer.close();
+        writer.write(SerTestHelper.testAddress());
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_feed_frames() {
+        List<Bean> beans = containerBeans();
+        for (JodaBeanBinFormat format : JodaBeanBinFormat.values()) {
+            BinaryBuffer buffer = new BinaryBuffer();
+            JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter(format);
+            for (Bean bean : beans) {
+                writer.writeFrame(bean, buffer);
+            }
+            byte[] bytes = buffer.toByteArray();
+            for (int chunkSize : new int[] {1, 3, 64, 100_000}) {
+                JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+                List<Bean> read = new ArrayList<>();
+                for (int i = 0; i < bytes.length; i += chunkSize) {
+                    ByteBuffer chunk = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+                    if (reader.feed(chunk)) {
+                        while (reader.isAvailable()) {
+                            read.add(reader.poll());
+                        }
+                    }
+                    assertEquals(chunk.remaining(), 0);
+                }
+                reader.end();
+                assertEquals(read.size(), beans.size());
+                for (int i = 0; i < beans.size(); i++) {
+                    BeanAssert.assertBeanEquals(read.get(i), beans.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_writeFrame_nullBean() {
+        BinaryBuffer buffer = new BinaryBuffer();
+        JodaBeanBinWriter writer = JodaBeanSer.COMPACT.binWriter();
+        writer.writeFrame(SerTestHelper.testImmAddress(), buffer);
+        byte[] expected = buffer.toByteArray();
+        try {
+            writer.writeFrame(null, buffer);
+            fail();
+        } catch (NullPointerException ex) {
+            // expected
+        }
+        assertTrue(Arrays.equals(buffer.toByteArray(), expected));
+    }
+
+    @Test
+    public void test_feed_indexedContainer() throws IOException {
+        List<Bean> beans = containerBeans();
+        byte[] bytes = writeContainer(beans, JodaBeanBinFormat.STANDARD, true);
+        JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+        int count = 0;
+        for (int i = 0; i < bytes.length; i += 50) {
+            reader.feed(ByteBuffer.wrap(bytes, i, Math.min(50, bytes.length - i)));
+            while (reader.poll() != null) {
+                count++;
+            }
+        }
+        reader.end();
+        assertEquals(count, beans.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_feed_notFrame() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testImmAddress());
+        new JodaBeanBinFeedReader<>(JodaBeanSer.COMPACT, Bean.class).feed(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_feed_endPartWayThroughFrame() {
+        BinaryBuffer buffer = new BinaryBuffer();
+        JodaBeanSer.COMPACT.binWriter().writeFrame(SerTestHelper.testImmAddress(), buffer);
+        JodaBeanBinFeedReader<Bean> reader = new JodaBeanBinFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+        assertFalse(reader.feed(ByteBuffer.wrap(buffer.array(), 0, buffer.size() - 1)));
+        reader.end();
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_skipObject() throws IOException {
+        char[] longChars = new char[70_000];
+        Arrays.fill(longChars, 'x');
+        String longStr = new String(longChars);
+        BinaryBuffer buffer = new BinaryBuffer();
+        MsgPackOutput output = new MsgPackOutput(buffer);
+        output.writeArrayHeader(29);
+        output.writeNil();
+        output.writeBoolean(true);
+        output.writeInt(-1);
+        output.writeInt(200);
+        output.writeInt(-200);
+        output.writeInt(40_000);
+        output.writeInt(-40_000);
+        output.writeInt(Integer.MAX_VALUE);
+        output.writeLong(Long.MIN_VALUE);
+        output.writeFloat(1.5f);
+        output.writeDouble(2.5d);
+        output.writeString("short");
+        output.writeString(longStr.substring(0, 40));
+        output.writeString(longStr.substring(0, 300));
+        output.writeString(longStr);
+        output.writeBytes(new byte[5]);
+        output.writeBytes(new byte[300]);
+        output.writeBytes(new byte[70_000]);
+        output.writeExtensionByte(MsgPack.JODA_TYPE_DATA, 7);
+        output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, "short");
+        output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, longStr.substring(0, 200));
+        buffer.ensureCapacity(4 + 300);
+        buffer.put(MsgPack.EXT_16);
+        buffer.putShort(300);
+        buffer.put(MsgPack.JODA_TYPE_DATA);
+        buffer.put(new byte[300], 0, 300);
+        buffer.ensureCapacity(6 + 70_000);
+        buffer.put(MsgPack.EXT_32);
+        buffer.putInt(70_000);
+        buffer.put(MsgPack.JODA_TYPE_DATA);
+        buffer.put(new byte[70_000], 0, 70_000);
+        output.writeArrayHeader(20);
+        for (int i = 0; i < 20; i++) {
+            output.writeMapHeader(1);
+            output.writeString("key");
+            output.writeArrayHeader(0);
+        }
+        output.writeMapHeader(20);
+        for (int i = 0; i < 20; i++) {
+            output.writeInt(i);
+            output.writeString("value");
+        }
+        for (int size : new int[] {2, 4, 8, 16}) {
+            buffer.ensureCapacity(size + 2);
+            buffer.put(size == 2 ? MsgPack.FIX_EXT_2 : size == 4 ? MsgPack.FIX_EXT_4 : size == 8 ? MsgPack.FIX_EXT_8 : MsgPack.FIX_EXT_16);
+            buffer.put(MsgPack.JODA_TYPE_DATA);
+            for (int i = 0; i < size; i++) {
+                buffer.put(MsgPack.NIL);
+            }
+        }
+        output.writeInt(42);
+        BinaryInput input = BinaryInput.of(buffer.asByteBuffer());
+        MsgPackInput.skipObject(input);
+        assertEquals(input.readByte(), 42);
+    }
+
+    @Test
+    public void test_skipObject_propertyNames() throws IOException {
+        char[] longChars = new char[300];
+        Arrays.fill(longChars, 'x');
+        String longStr = new String(longChars);
+        BinaryBuffer buffer = new BinaryBuffer();
+        MsgPackOutput output = new MsgPackOutput(buffer);
+        output.writeMapHeader(3);
+        output.writeExtensionStringAnyLength(MsgPack.JODA_TYPE_PROPERTY, "first");
+        output.writeExtensionString(MsgPack.JODA_TYPE_BEAN, "Type");
+        output.writeExtensionStringAnyLength(MsgPack.JODA_TYPE_PROPERTY, longStr);
+        output.writeMapHeader(1);
+        output.writeExtensionStringAnyLength(MsgPack.JODA_TYPE_PROPERTY, "nested");
+        output.writeString("value");
+        output.writeInt(0);
+        output.writeNil();
+        output.writeInt(42);
+        List<String> names = new ArrayList<>();
+        BinaryInput input = BinaryInput.of(buffer.asByteBuffer());
+        MsgPackInput.skipObject(input, names);
+        assertEquals(input.readByte(), 42);
+        assertEquals(names, Arrays.asList("first", longStr, "nested"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_read_byteBuffer_heap() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(collections);
+        byte[] padded = new byte[bytes.length + 7];
+        System.arraycopy(bytes, 0, padded, 3, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(padded, 3, bytes.length).slice();
+
+        Bean bean = JodaBeanSer.COMPACT.binReader().read(buffer);
+        BeanAssert.assertBeanEquals(bean, collections);
+        assertEquals(buffer.position(), bytes.length);
+    }
+
+    @Test
+    public void test_read_byteBuffer_direct() {
+        Address address = SerTestHelper.testAddress();
+        ImmAddress address2 = SerTestHelper.testImmAddress();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(address);
+        byte[] bytes2 = JodaBeanSer.COMPACT.binWriter().write(address2);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + bytes2.length);
+        buffer.put(bytes).put(bytes2).flip();
+
+        JodaBeanBinReader reader = JodaBeanSer.COMPACT.binReader();
+        Address bean = reader.read(buffer, Address.class);
+        BeanAssert.assertBeanEquals(bean, address);
+        assertEquals(buffer.position(), bytes.length);
+        ImmAddress bean2 = JodaBeanSer.COMPACT.binReader().read(buffer, ImmAddress.class);
+        BeanAssert.assertBeanEquals(bean2, address2);
+        assertEquals(buffer.remaining(), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_read_byteBuffer_truncated() {
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(SerTestHelper.testAddress());
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length - 1);
+        buffer.put(bytes, 0, bytes.length - 1).flip();
+        JodaBeanSer.COMPACT.binReader().read(buffer);
+    }
+
+    @Test
+    public void test_read_repeatedBeans() {
+        Person person = new Person();
+        person.setForename("Vince");
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            address.setCity("London");
+            person.getAddressList().add(address);
+        }
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(person);
+        Person bean = JodaBeanSer.COMPACT.binReader().read(bytes, Person.class);
+        BeanAssert.assertBeanEquals(bean, person);
+
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("forename", "Vince");
+        flexi.set("person", person);
+        byte[] flexiBytes = JodaBeanSer.COMPACT.binWriter().write(flexi);
+        FlexiBean flexiBean = JodaBeanSer.COMPACT.binReader().read(flexiBytes, FlexiBean.class);
+        BeanAssert.assertBeanEquals(flexiBean, flexi);
+    }
+
+    @Test
+    public void test_stringCache() {
+        BinaryStringCache cache = new BinaryStringCache();
+        byte[] bytes = "xxstreetxxcity\u00e9".getBytes(StandardCharsets.UTF_8);
+        BinaryStringCache.Entry street = cache.lookup(bytes, 2, 6);
+        assertEquals(street.string, "street");
+        assertSame(cache.lookup("street".getBytes(StandardCharsets.UTF_8), 0, 6), street);
+        BinaryStringCache.Entry city = cache.lookup(bytes, 10, 6);
+        assertEquals(city.string, "city\u00e9");
+        assertNotSame(city, street);
+        for (int i = 0; i < 5000; i++) {
+            byte[] other = ("name" + i).getBytes(StandardCharsets.UTF_8);
+            assertEquals(cache.lookup(other, 0, other.length).string, "name" + i);
+        }
+        assertSame(cache.lookup(bytes, 2, 6), street);
+        byte[] large = new byte[BinaryStringCache.MAX_LENGTH + 1];
+        Arrays.fill(large, (byte) 'a');
+        assertNotSame(cache.lookup(large, 0, large.length), cache.lookup(large, 0, large.length));
+    }
+
+    @Test
+    public void test_read_stream_markNotSupported() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        byte[] bytes = JodaBeanSer.COMPACT.binWriter().write(address);
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        ImmAddress bean = JodaBeanSer.COMPACT.binReader().read(in, ImmAddress.class);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void test_readWrite_primitives() throws IOException {
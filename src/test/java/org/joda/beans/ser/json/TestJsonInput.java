@@ -17,8 +17,11 @@ package org.joda.beans.ser.json;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -64,6 +67,76 @@ public class TestJsonInput {
         assertEquals(input.parseString(), expected);
     }
 
+    @Test
+    @UseDataProvider(value = "data_string")
+    public void test_parseString_smallBuffer(String text, String expected) throws IOException {
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            JsonInput input = new JsonInput(new StringReader(text + "\"\"" + text + '"'), bufferSize);
+            assertEquals(input.parseString(), expected);
+            assertEquals(input.acceptString(), expected);
+        }
+    }
+
+    @Test
+    @UseDataProvider(value = "data_string")
+    public void test_parseString_string(String text, String expected) throws IOException {
+        JsonInput input = new JsonInput(text + "\",\"" + text + '"');
+        assertEquals(input.parseString(), expected);
+        assertEquals(input.readEvent(), JsonEvent.COMMA);
+        assertEquals(input.acceptString(), expected);
+    }
+
+    @Test
+    @UseDataProvider(value = "data_string")
+    public void test_parseString_utf8(String text, String expected) throws IOException {
+        byte[] bytes = (text + "\"\"" + text + '"').getBytes(StandardCharsets.UTF_8);
+        JsonInput input = new JsonInput(bytes);
+        assertEquals(input.parseString(), expected);
+        assertEquals(input.acceptString(), expected);
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            input = new JsonInput(new ByteArrayInputStream(bytes), bufferSize);
+            assertEquals(input.parseString(), expected);
+            assertEquals(input.acceptString(), expected);
+        }
+    }
+
+    @Test
+    public void test_parseString_utf8_multiByte() throws IOException {
+        String text = "a\u00e9\u07ff\u0800\u20ac\uffff\ud800\udc00\ud83d\ude00\udbff\udfffz";
+        byte[] bytes = ('"' + text + '"').getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 1; bufferSize < 12; bufferSize++) {
+            JsonInput input = new JsonInput(new ByteArrayInputStream(bytes), bufferSize);
+            assertEquals(input.acceptString(), text);
+        }
+        assertEquals(new JsonInput(bytes).acceptString(), text);
+    }
+
+    @DataProvider
+    public static Object[][] data_utf8Malformed() {
+        return new Object[][] {
+            {new byte[] {(byte) 0x80}},
+            {new byte[] {(byte) 0xC0, (byte) 0x80}},
+            {new byte[] {(byte) 0xC3}},
+            {new byte[] {(byte) 0xE2, (byte) 0x82}},
+            {new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}},
+            {new byte[] {(byte) 0xF5, (byte) 0x80, (byte) 0x80, (byte) 0x80}},
+            {new byte[] {(byte) 0xFF}},
+        };
+    }
+
+    @Test
+    @UseDataProvider(value = "data_utf8Malformed")
+    public void test_parseString_utf8_malformed(byte[] malformed) throws IOException {
+        byte[] bytes = new byte[malformed.length + 3];
+        bytes[0] = '"';
+        bytes[1] = 'a';
+        System.arraycopy(malformed, 0, bytes, 2, malformed.length);
+        bytes[bytes.length - 1] = '"';
+        // the number of replacement characters for each malformed sequence may vary
+        String str = new JsonInput(bytes).acceptString().replaceAll("\uFFFD+", "\uFFFD");
+        assertEquals(str, new String(bytes, 1, bytes.length - 2, StandardCharsets.UTF_8).replaceAll("\uFFFD+", "\uFFFD"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     @UseDataProvider(value = "data_string")
     public void test_parseString_endOfFile(String text, String expected) throws IOException {
@@ -188,9 +261,22 @@ public class TestJsonInput {
             {"-19", -19L},
             {"-123456789", -123456789L},
             {"-1234567890123456789", -1234567890123456789L},
+            {"9223372036854775807", Long.MAX_VALUE},
+            {"-9223372036854775808", Long.MIN_VALUE},
         };
     }
 
+    @Test
+    @UseDataProvider(value = "data_numberIntegral")
+    public void test_parseNumberIntegral_smallBuffer(String text, long expected) throws IOException {
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            JsonInput input = new JsonInput(new StringReader(text + '}'), bufferSize);
+            assertEquals(input.readEvent(), JsonEvent.NUMBER_INTEGRAL);
+            assertEquals(input.parseNumberIntegral(), expected);
+            assertEquals(input.readEvent(), JsonEvent.OBJECT_END);
+        }
+    }
+
     @Test
     @UseDataProvider(value = "data_numberIntegral")
     public void test_parseNumberIntegral(String text, long expected) throws IOException {
@@ -237,6 +323,11 @@ public class TestJsonInput {
             {"123.456E20", 123.456e20d},
             {"123.456E+20", 123.456e+20d},
             {"123.456E-20", 123.456e-20d},
+            {"0e5", 0d},
+            {"0.1", 0.1d},
+            {"12345678901234567890.5", 12345678901234567890.5d},
+            {"1e400", Double.POSITIVE_INFINITY},
+            {"4.9e-324", Double.MIN_VALUE},
         };
     }
 
@@ -256,6 +347,38 @@ public class TestJsonInput {
         input.readEvent();
     }
 
+    @Test
+    public void test_parseNumberFloating_exact() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            String text;
+            switch (i % 3) {
+                case 0:
+                    text = Double.toString(Double.longBitsToDouble(random.nextLong()));
+                    break;
+                case 1:
+                    text = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+                    break;
+                default:
+                    text = (random.nextLong() % 100000000000L) + "." + Math.abs(random.nextInt()) + "e" + (random.nextInt(60) - 30);
+                    break;
+            }
+            if (text.contains("N") || text.contains("I")) {
+                continue;
+            }
+            JsonInput input = new JsonInput(text + '}');
+            assertEquals(input.readEvent(), JsonEvent.NUMBER_FLOATING);
+            assertEquals(text, Double.doubleToLongBits(input.parseNumberFloating()), Double.doubleToLongBits(Double.parseDouble(text)));
+        }
+    }
+
+    @Test
+    public void test_parseNumberFloating_negativeZero() throws IOException {
+        JsonInput input = new JsonInput("-0.0}");
+        assertEquals(input.readEvent(), JsonEvent.NUMBER_FLOATING);
+        assertEquals(Double.doubleToLongBits(input.parseNumberFloating()), Double.doubleToLongBits(-0d));
+    }
+
     //-----------------------------------------------------------------------
     @DataProvider
     public static Object[][] data_numberBad() {
@@ -273,6 +396,13 @@ public class TestJsonInput {
             {"001"},
             {"00.0"},
             {"1.1e3E4"},
+            {"01"},
+            {"-01"},
+            {"1.e5"},
+            {"1e+"},
+            {"--1"},
+            {"9223372036854775808"},
+            {"-9223372036854775809"},
         };
     }
 
@@ -352,6 +482,9 @@ public class TestJsonInput {
             {"[]"},
             {"[1,2,3]"},
             {"[1,[\"\"],{\"a\":2}]"},
+            {" \"a}]\\\"[{b\""},
+            {"{\"a\":\"}\",\"b\\\\\":[\"]\\\"\"]}"},
+            {"[-1.2e+3, true, null, {\"a\": {\"b\": []}}]"},
         };
     }
 
@@ -363,6 +496,20 @@ public class TestJsonInput {
         assertEquals(input.readEvent(), JsonEvent.COMMA);
     }
 
+    @Test
+    @UseDataProvider(value = "data_skip")
+    public void test_skip_smallBuffer(String text) throws IOException {
+        JsonInput input = new JsonInput(new StringReader(text + "]"), 1);
+        input.skipData();
+        assertEquals(input.readEvent(), JsonEvent.ARRAY_END);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_skip_unterminated() throws IOException {
+        JsonInput input = new JsonInput(new StringReader("{\"a\":[1,2}"));
+        input.skipData();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void test_skip_bad() throws IOException {
         JsonInput input = new JsonInput(new StringReader(","));
@@ -19,6 +19,8 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
 
+import org.joda.beans.impl.flexi.FlexiBean;
+import org.joda.beans.sample.Address;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -294,6 +296,28 @@ public class TestJsonOutput {
         assertEquals(buf.toString(), "{\"a\":\"aa\",\"b\":\"bb\"}");
     }
 
+    @Test
+    public void test_write_object2_property() throws IOException {
+        outputCompact.writeObjectStart();
+        outputCompact.writeObjectKey(Address.meta().street());
+        outputCompact.writeString("aa");
+        outputCompact.writeObjectKey(Address.meta().city());
+        outputCompact.writeString("bb");
+        outputCompact.writeObjectEnd();
+        assertEquals(buf.toString(), "{\"street\":\"aa\",\"city\":\"bb\"}");
+    }
+
+    @Test
+    public void test_write_object_dynamicProperty() throws IOException {
+        FlexiBean bean = new FlexiBean();
+        bean.set("dynamic", "aa");
+        outputCompact.writeObjectStart();
+        outputCompact.writeObjectKey(bean.metaBean().metaProperty("dynamic"));
+        outputCompact.writeString("aa");
+        outputCompact.writeObjectEnd();
+        assertEquals(buf.toString(), "{\"dynamic\":\"aa\"}");
+    }
+
     @Test
     public void test_write_object3() throws IOException {
         outputCompact.writeObjectStart();
@@ -460,6 +484,17 @@ public class TestJsonOutput {
         assertEquals(buf.toString(), "{\n \"a\": \"aa\",\n \"b\": \"bb\"\n}");
     }
 
+    @Test
+    public void test_write_object2_property_pretty() throws IOException {
+        outputPretty.writeObjectStart();
+        outputPretty.writeObjectKey(Address.meta().street());
+        outputPretty.writeString("aa");
+        outputPretty.writeObjectKey(Address.meta().city());
+        outputPretty.writeString("bb");
+        outputPretty.writeObjectEnd();
+        assertEquals(buf.toString(), "{\n \"street\": \"aa\",\n \"city\": \"bb\"\n}");
+    }
+
     @Test
     public void test_write_object3_pretty() throws IOException {
         outputPretty.writeObjectStart();
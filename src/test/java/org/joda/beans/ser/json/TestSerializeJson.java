@@ -16,14 +16,30 @@
 package org.joda.beans.ser.json;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.joda.beans.Bean;
+import org.joda.beans.MetaProperty;
 import org.joda.beans.impl.flexi.FlexiBean;
 import org.joda.beans.sample.Address;
 import org.joda.beans.sample.ImmAddress;
@@ -38,6 +54,7 @@ import org.joda.beans.sample.JodaConvertBean;
 import org.joda.beans.sample.JodaConvertWrapper;
 import org.joda.beans.sample.Person;
 import org.joda.beans.sample.PrimitiveBean;
+import org.joda.beans.sample.SimpleName;
 import org.joda.beans.sample.SimplePerson;
 import org.joda.beans.ser.JodaBeanSer;
 import org.joda.beans.ser.SerDeserializers;
@@ -47,6 +64,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
 import com.tngtech.java.junit.dataprovider.DataProvider;
 import com.tngtech.java.junit.dataprovider.DataProviderRunner;
@@ -114,6 +132,403 @@ public class TestSerializeJson {
     }
 
     //-----------------------------------------------------------------------
+    @Test
+    public void test_readWrite_utf8Bytes() throws IOException {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("text", "caf\u00e9 \u20ac \ud83d\ude00 \u2028");
+        for (Bean bean : new Bean[] {address, flexi}) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            JodaBeanSer.PRETTY.jsonWriter().write(bean, baos);
+            byte[] bytes = baos.toByteArray();
+            String json = JodaBeanSer.PRETTY.jsonWriter().write(bean);
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), json);
+
+            BeanAssert.assertBeanEquals(JodaBeanSer.PRETTY.jsonReader().read(bytes), bean);
+            BeanAssert.assertBeanEquals(JodaBeanSer.PRETTY.jsonReader().read(new ByteArrayInputStream(bytes)), bean);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readElements_reader() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        person.getOtherAddressMap().put("home", person.getAddressList().get(0));
+        for (JodaBeanSer settings : new JodaBeanSer[] {JodaBeanSer.COMPACT, JodaBeanSer.PRETTY}) {
+            String json = settings.jsonWriter().write(person);
+            try (Stream<Address> stream = settings.jsonReader()
+                    .readElements(new StringReader(json), Person.class, "addressList", Address.class)) {
+                List<Address> list = stream.collect(Collectors.toList());
+                assertEquals(list, person.getAddressList());
+            }
+        }
+    }
+
+    @Test
+    public void test_readElements_inputStream() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        byte[] bytes = JodaBeanSer.PRETTY.jsonWriter().write(collections).getBytes(StandardCharsets.UTF_8);
+        try (Stream<String> stream = JodaBeanSer.PRETTY.jsonReader()
+                .readElements(new ByteArrayInputStream(bytes), Bean.class, "listInterface", String.class)) {
+            Iterator<String> it = stream.iterator();
+            assertEquals(it.next(), "A");
+            assertEquals(it.next(), "B");
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_readElements_closesReader() throws IOException {
+        Reader reader = new StringReader(JodaBeanSer.COMPACT.jsonWriter().write(new Person()));
+        try (Stream<Address> stream = JodaBeanSer.COMPACT.jsonReader()
+                .readElements(reader, Person.class, "addressList", Address.class)) {
+            assertEquals(stream.count(), 0);
+        }
+        reader.read();
+    }
+
+    @Test
+    public void test_readElements_propertyNotPresent() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(new Person());
+        try (Stream<Address> stream = JodaBeanSer.COMPACT.jsonReader()
+                .readElements(new StringReader(json), Person.class, "unknown", Address.class)) {
+            assertEquals(stream.count(), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_readElements_notCollection() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testCollections());
+        JodaBeanSer.COMPACT.jsonReader().readElements(new StringReader(json), ImmGuava.class, "map", String.class);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readProperties() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        person.getAddressList().add(new Address());
+        Address main = new Address();
+        main.setStreet("Main Street");
+        main.setCity("London");
+        person.setMainAddress(main);
+        String json = JodaBeanSer.PRETTY.jsonWriter().write(person);
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.PRETTY.jsonReader().readProperties(
+                json, Person.class, ImmutableSet.of(Person.meta().mainAddress(), Person.meta().forename()));
+        assertEquals(map.size(), 2);
+        assertEquals(map.get(Person.meta().forename()), "Vince");
+        assertEquals(map.get(Person.meta().mainAddress()), main);
+    }
+
+    @Test
+    public void test_readProperties_inputStream() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        byte[] bytes = JodaBeanSer.COMPACT.jsonWriter().write(collections).getBytes(StandardCharsets.UTF_8);
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.jsonReader().readProperties(
+                new ByteArrayInputStream(bytes), Bean.class, ImmutableSet.<MetaProperty<?>>of(ImmGuava.meta().listInterface()));
+        assertEquals(map.size(), 1);
+        assertEquals(map.get(ImmGuava.meta().listInterface()), collections.getListInterface());
+    }
+
+    @Test
+    public void test_readProperties_aliased() {
+        String json = "{\"firstName\":\"A\",\"givenName\":\"B\"}";
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.jsonReader().readProperties(
+                json, SimpleName.class, ImmutableSet.of(SimpleName.meta().forename(), SimpleName.meta().surname()));
+        assertEquals(map.size(), 2);
+        assertEquals(map.get(SimpleName.meta().forename()), "A");
+        assertEquals(map.get(SimpleName.meta().surname()), "B");
+    }
+
+    @Test
+    public void test_readProperties_propertyNotPresent() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(new Person());
+        Map<MetaProperty<?>, Object> map = JodaBeanSer.COMPACT.jsonReader().readProperties(
+                new StringReader(json), Person.class, ImmutableSet.of(Person.meta().mainAddress()));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_readProperties_notBean() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(new Person());
+        JodaBeanSer.COMPACT.jsonReader().readProperties(json, String.class, ImmutableSet.of(Person.meta().forename()));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_writeElements_appendable() throws IOException {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            addresses.add(address);
+        }
+        person.getOtherAddressMap().put("home", addresses.get(0));
+        for (JodaBeanSer settings : new JodaBeanSer[] {JodaBeanSer.COMPACT, JodaBeanSer.PRETTY}) {
+            StringBuilder buf = new StringBuilder();
+            settings.jsonWriter().writeElements(person, "addressList", addresses.iterator(), buf);
+
+            Person expected = person.clone();
+            expected.setAddressList(addresses);
+            BeanAssert.assertBeanEquals(settings.jsonReader().read(buf.toString(), Person.class), expected);
+            try (Stream<Address> stream = settings.jsonReader()
+                    .readElements(new StringReader(buf.toString()), Person.class, "addressList", Address.class)) {
+                assertEquals(stream.collect(Collectors.toList()), addresses);
+            }
+        }
+    }
+
+    @Test
+    public void test_writeElements_outputStream() throws IOException {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        List<String> elements = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            elements.add("Element \u20ac" + i);
+        }
+        int[] flushes = new int[1];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+        JodaBeanSer.PRETTY.jsonWriter().writeElements(collections, "listInterface", elements.iterator(), baos);
+        assertTrue(flushes[0] > 1);
+        try (Stream<String> stream = JodaBeanSer.PRETTY.jsonReader()
+                .readElements(new ByteArrayInputStream(baos.toByteArray()), Bean.class, "listInterface", String.class)) {
+            assertEquals(stream.collect(Collectors.toList()), elements);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_feed_chunks() {
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("text", "caf\u00e9 {[\"}]\\ \ud83d\ude00");
+        Bean[] beans = {SerTestHelper.testImmAddress(), flexi, SerTestHelper.testCollections()};
+        StringBuilder buf = new StringBuilder();
+        for (Bean bean : beans) {
+            buf.append(JodaBeanSer.PRETTY.jsonWriter().write(bean)).append(' ');
+        }
+        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+        for (int chunkSize = 1; chunkSize < 8; chunkSize++) {
+            JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<>(JodaBeanSer.PRETTY, Bean.class);
+            List<Bean> parsed = new ArrayList<>();
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                ByteBuffer chunk = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+                if (reader.feed(chunk)) {
+                    while (reader.isAvailable()) {
+                        parsed.add(reader.poll());
+                    }
+                }
+                assertEquals(chunk.remaining(), 0);
+            }
+            reader.end();
+            assertEquals(reader.poll(), null);
+            assertEquals(parsed.size(), beans.length);
+            for (int i = 0; i < beans.length; i++) {
+                BeanAssert.assertBeanEquals(parsed.get(i), beans[i]);
+            }
+        }
+    }
+
+    @Test
+    public void test_feed_singleChunk() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(address);
+        byte[] bytes = (json + json).getBytes(StandardCharsets.UTF_8);
+        JodaBeanJsonFeedReader<ImmAddress> reader = new JodaBeanJsonFeedReader<>(JodaBeanSer.COMPACT, ImmAddress.class);
+        assertTrue(reader.feed(ByteBuffer.wrap(bytes)));
+        BeanAssert.assertBeanEquals(reader.poll(), address);
+        BeanAssert.assertBeanEquals(reader.poll(), address);
+        assertFalse(reader.isAvailable());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_feed_notObject() {
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+        reader.feed(ByteBuffer.wrap("[]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_feed_endPartWayThroughBean() {
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+        assertFalse(reader.feed(ByteBuffer.wrap("{\"a\":".getBytes(StandardCharsets.UTF_8))));
+        reader.end();
+    }
+
+    @Test
+    public void test_feed_largeBeanReleasesBuffer() {
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("text", String.join("", Collections.nCopies(100_000, "x")));
+        byte[] large = JodaBeanSer.COMPACT.jsonWriter().write(flexi).getBytes(StandardCharsets.UTF_8);
+        byte[] small = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testImmAddress()).getBytes(StandardCharsets.UTF_8);
+        JodaBeanJsonFeedReader<Bean> reader = new JodaBeanJsonFeedReader<>(JodaBeanSer.COMPACT, Bean.class);
+        assertTrue(reader.feed(ByteBuffer.wrap(large)));
+        BeanAssert.assertBeanEquals(reader.poll(), flexi);
+        assertTrue(reader.feed(ByteBuffer.wrap(small)));
+        BeanAssert.assertBeanEquals(reader.poll(), SerTestHelper.testImmAddress());
+        reader.end();
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_elementFeed_chunks() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("caf\u00e9 {[\"}]\\ " + i);
+            person.getAddressList().add(address);
+        }
+        person.getOtherAddressMap().put("home", person.getAddressList().get(0));
+        for (JodaBeanSer settings : new JodaBeanSer[] {JodaBeanSer.COMPACT, JodaBeanSer.PRETTY}) {
+            byte[] bytes = settings.jsonWriter().write(person).getBytes(StandardCharsets.UTF_8);
+            for (int chunkSize : new int[] {1, 3, 64, bytes.length}) {
+                JodaBeanJsonElementFeedReader<Address> reader =
+                        new JodaBeanJsonElementFeedReader<>(settings, Bean.class, "addressList", Address.class);
+                List<Address> parsed = new ArrayList<>();
+                for (int i = 0; i < bytes.length; i += chunkSize) {
+                    ByteBuffer chunk = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+                    reader.feed(chunk);
+                    while (reader.isAvailable()) {
+                        parsed.add(reader.poll());
+                    }
+                    assertEquals(chunk.remaining(), 0);
+                }
+                reader.end();
+                assertEquals(parsed, person.getAddressList());
+            }
+        }
+    }
+
+    @Test
+    public void test_elementFeed_beforeEndOfRoot() {
+        Person person = new Person();
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            person.getAddressList().add(address);
+        }
+        byte[] bytes = JodaBeanSer.COMPACT.jsonWriter().write(person).getBytes(StandardCharsets.UTF_8);
+        JodaBeanJsonElementFeedReader<Address> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, Person.class, "addressList", Address.class);
+        assertTrue(reader.feed(ByteBuffer.wrap(bytes, 0, bytes.length / 2)));
+        int count = 0;
+        while (reader.isAvailable()) {
+            assertEquals(reader.poll(), person.getAddressList().get(count++));
+        }
+        assertTrue(count > 10 && count < 90);
+        try {
+            reader.end();
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test_elementFeed_metaType() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<String> elements = Arrays.asList("C", "A", "B");
+        JodaBeanSer.PRETTY.jsonWriter().writeElements(SerTestHelper.testCollections(), "collection", elements.iterator(), baos);
+        byte[] bytes = baos.toByteArray();
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("@meta"));
+        JodaBeanJsonElementFeedReader<String> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.PRETTY, ImmGuava.class, "collection", String.class);
+        List<String> parsed = new ArrayList<>();
+        for (byte b : bytes) {
+            reader.feed(ByteBuffer.wrap(new byte[] {b}));
+            while (reader.isAvailable()) {
+                parsed.add(reader.poll());
+            }
+        }
+        reader.end();
+        assertEquals(parsed, elements);
+    }
+
+    @Test
+    public void test_elementFeed_nullAndEmpty() {
+        String json = "{\"addressList\":null,\"otherAddressMap\":{}} {\"addressList\":[]}";
+        for (String root : json.split(" ")) {
+            JodaBeanJsonElementFeedReader<Address> reader =
+                    new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, Person.class, "addressList", Address.class);
+            assertFalse(reader.feed(ByteBuffer.wrap(root.getBytes(StandardCharsets.UTF_8))));
+            reader.end();
+        }
+    }
+
+    @Test
+    public void test_elementFeed_propertyNotPresent() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testCollections());
+        JodaBeanJsonElementFeedReader<String> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, ImmGuava.class, "unknown", String.class);
+        assertFalse(reader.feed(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+        reader.end();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_elementFeed_notCollection() {
+        String json = JodaBeanSer.COMPACT.jsonWriter().write(SerTestHelper.testCollections());
+        JodaBeanJsonElementFeedReader<String> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, ImmGuava.class, "map", String.class);
+        reader.feed(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_elementFeed_trailingComma() {
+        JodaBeanJsonElementFeedReader<Address> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, Person.class, "addressList", Address.class);
+        reader.feed(ByteBuffer.wrap("{\"addressList\":[{},]}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_elementFeed_dataAfterRoot() {
+        JodaBeanJsonElementFeedReader<Address> reader =
+                new JodaBeanJsonElementFeedReader<>(JodaBeanSer.COMPACT, Person.class, "addressList", Address.class);
+        reader.feed(ByteBuffer.wrap("{} {}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void test_writeElements_sets() throws IOException {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        List<String> elements = Arrays.asList("C", "A", "B");
+        for (String propertyName : Arrays.asList("set", "sortedSet", "setInterface", "sortedSetInterface")) {
+            StringBuilder buf = new StringBuilder();
+            JodaBeanSer.COMPACT.jsonWriter().writeElements(collections, propertyName, elements.iterator(), buf);
+            ImmGuava<?> bean = JodaBeanSer.COMPACT.jsonReader().read(buf.toString(), ImmGuava.class);
+            assertEquals(bean.metaBean().metaProperty(propertyName).get(bean), ImmutableSet.copyOf(elements));
+            assertEquals(bean.getList(), collections.getList());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_writeElements_multiset() throws IOException {
+        JodaBeanSer.COMPACT.jsonWriter().writeElements(
+                SerTestHelper.testCollections(), "multiset", Arrays.asList("A", "A").iterator(), new StringBuilder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_writeElements_notCollection() throws IOException {
+        JodaBeanSer.COMPACT.jsonWriter().writeElements(
+                SerTestHelper.testCollections(), "map", new ArrayList<>().iterator(), new StringBuilder());
+    }
+
     @Test
     public void test_readWriteBeanEmptyChild_pretty() {
         FlexiBean bean = new FlexiBean();
@@ -468,7 +883,12 @@ public class TestSerializeJson {
 
     @Test(expected = IllegalArgumentException.class)
     public void test_writer_write2_nullAppendable() throws IOException {
-        new JodaBeanJsonWriter(JodaBeanSer.PRETTY).write(new FlexiBean(), null);
+        new JodaBeanJsonWriter(JodaBeanSer.PRETTY).write(new FlexiBean(), (Appendable) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_writer_write2_nullOutputStream() throws IOException {
+        new JodaBeanJsonWriter(JodaBeanSer.PRETTY).write(new FlexiBean(), (OutputStream) null);
     }
 
     //-----------------------------------------------------------------------
@@ -482,6 +902,11 @@ public class TestSerializeJson {
         new JodaBeanJsonReader(JodaBeanSer.PRETTY).read((Reader) null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void test_reader_readBytes_null() {
+        new JodaBeanJsonReader(JodaBeanSer.PRETTY).read((byte[]) null);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void test_reader_readString_null() {
         new JodaBeanJsonReader(JodaBeanSer.PRETTY).read((String) null);
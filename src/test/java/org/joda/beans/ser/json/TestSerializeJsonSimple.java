@@ -23,6 +23,9 @@ import java.io.StringReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.joda.beans.Bean;
 import org.joda.beans.impl.flexi.FlexiBean;
@@ -110,6 +113,24 @@ public class TestSerializeJsonSimple {
     }
 
     //-----------------------------------------------------------------------
+    @Test
+    public void test_readElements() {
+        Person person = new Person();
+        person.setForename("Vince");
+        for (int i = 0; i < 10; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        String json = JodaBeanSer.PRETTY.simpleJsonWriter().write(person);
+        try (Stream<Address> stream = JodaBeanSer.PRETTY.simpleJsonReader()
+                .readElements(new StringReader(json), Person.class, "addressList", Address.class)) {
+            List<Address> list = stream.collect(Collectors.toList());
+            assertEquals(list, person.getAddressList());
+        }
+    }
+
     @Test
     public void test_readWriteBeanEmptyChild_pretty() {
         FlexiBean bean = new FlexiBean();
@@ -216,7 +237,7 @@ public class TestSerializeJsonSimple {
 
     @Test(expected = IllegalArgumentException.class)
     public void test_writer_write2_nullAppendable() throws IOException {
-        new JodaBeanSimpleJsonWriter(JodaBeanSer.PRETTY).write(new FlexiBean(), null);
+        new JodaBeanSimpleJsonWriter(JodaBeanSer.PRETTY).write(new FlexiBean(), (Appendable) null);
     }
 
     //-----------------------------------------------------------------------
@@ -22,8 +22,10 @@ import java.util.Map;
 
 import org.joda.beans.impl.flexi.FlexiBean;
 import org.joda.beans.sample.Address;
+import org.joda.beans.sample.ImmAddress;
 import org.joda.beans.sample.ImmGuava;
 import org.joda.beans.sample.ImmOptional;
+import org.joda.beans.sample.ImmPerson;
 import org.joda.beans.sample.Person;
 import org.joda.beans.sample.SimpleJson;
 import org.joda.beans.ser.JodaBeanSer;
@@ -72,6 +74,22 @@ public class TestSerializeSimpleMap {
         BeanAssert.assertBeanEquals(bean, parsed);
     }
 
+    @Test
+    public void test_writeGrids() {
+        ImmAddress grids = SerTestHelper.testImmAddress();
+        ImmAddress address = ImmAddress.builder()
+                .street("Park Lane")
+                .city("London")
+                .owner(ImmPerson.builder().forename("Etienne").surname("Colebourne").build())
+                .sparseGrid(grids.getSparseGrid())
+                .denseGrid(grids.getDenseGrid())
+                .build();
+        Map<String, Object> map = JodaBeanSer.PRETTY.simpleMapWriter().write(address);
+
+        ImmAddress parsed = JodaBeanSer.PRETTY.simpleMapReader().read(map, ImmAddress.class);
+        BeanAssert.assertBeanEquals(address, parsed);
+    }
+
     //-----------------------------------------------------------------------
     @Test
     public void test_readWriteBeanEmptyChild() {
@@ -16,9 +16,21 @@
 package org.joda.beans.ser.xml;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.joda.beans.Bean;
 import org.joda.beans.impl.flexi.FlexiBean;
@@ -71,6 +83,125 @@ public class TestSerializeXml {
         BeanAssert.assertBeanEquals(bean, address);
     }
 
+    @Test
+    public void test_writeToOutputStream() throws IOException {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JodaBeanSer.PRETTY.xmlWriter().write(address, output);
+        String xml = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(xml, JodaBeanSer.PRETTY.xmlWriter().write(address));
+
+        ImmAddress bean = JodaBeanSer.PRETTY.xmlReader().read(new ByteArrayInputStream(output.toByteArray()), ImmAddress.class);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
+    @Test
+    public void test_writeToOutputStream_collections() throws IOException {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JodaBeanSer.COMPACT.xmlWriter().write(collections, false, output);
+        String xml = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(xml, JodaBeanSer.COMPACT.xmlWriter().write(collections, false));
+    }
+
+    @Test
+    public void test_writeToOutputStream_dynamic() throws IOException {
+        FlexiBean flexi = new FlexiBean();
+        flexi.set("name", "Stephen");
+        flexi.set("address", SerTestHelper.testImmAddress());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JodaBeanSer.COMPACT.xmlWriter().write(flexi, output);
+        String xml = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(xml, JodaBeanSer.COMPACT.xmlWriter().write(flexi));
+        BeanAssert.assertBeanEquals(JodaBeanSer.COMPACT.xmlReader().read(xml, FlexiBean.class), flexi);
+    }
+
+    @Test
+    public void test_read_reuseReaders() {
+        Address address = SerTestHelper.testAddress();
+        String xml = JodaBeanSer.PRETTY.xmlWriter().write(address);
+        JodaBeanXmlReader reader = new JodaBeanXmlReader(JodaBeanSer.PRETTY, true);
+        for (int i = 0; i < 3; i++) {
+            BeanAssert.assertBeanEquals(reader.read(xml, Address.class), address);
+        }
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        BeanAssert.assertBeanEquals(reader.read(new ByteArrayInputStream(bytes), Address.class), address);
+    }
+
+    @Test
+    public void test_read_reuseReaders_threads() {
+        ImmAddress address = SerTestHelper.testImmAddress();
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(address);
+        List<ImmAddress> results = IntStream.range(0, 200).parallel()
+                .mapToObj(i -> new JodaBeanXmlReader(JodaBeanSer.COMPACT, true).read(xml, ImmAddress.class))
+                .collect(Collectors.toList());
+        for (ImmAddress result : results) {
+            BeanAssert.assertBeanEquals(result, address);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readElements_reader() {
+        Person person = new Person();
+        person.setForename("Vince");
+        person.setSurname("Cable");
+        for (int i = 0; i < 100; i++) {
+            Address address = new Address();
+            address.setNumber(i);
+            address.setStreet("Street " + i);
+            person.getAddressList().add(address);
+        }
+        person.getOtherAddressMap().put("home", person.getAddressList().get(0));
+        for (JodaBeanSer settings : new JodaBeanSer[] {JodaBeanSer.COMPACT, JodaBeanSer.PRETTY}) {
+            String xml = settings.xmlWriter().write(person);
+            try (Stream<Address> stream = settings.xmlReader()
+                    .readElements(new StringReader(xml), Person.class, "addressList", Address.class)) {
+                List<Address> list = stream.collect(Collectors.toList());
+                assertEquals(list, person.getAddressList());
+            }
+        }
+    }
+
+    @Test
+    public void test_readElements_inputStream() {
+        ImmGuava<String> collections = SerTestHelper.testCollections();
+        byte[] bytes = JodaBeanSer.PRETTY.xmlWriter().write(collections).getBytes(StandardCharsets.UTF_8);
+        try (Stream<String> stream = JodaBeanSer.PRETTY.xmlReader()
+                .readElements(new ByteArrayInputStream(bytes), Bean.class, "listInterface", String.class)) {
+            Iterator<String> it = stream.iterator();
+            assertEquals(it.next(), "A");
+            assertEquals(it.next(), "B");
+            assertFalse(it.hasNext());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_readElements_closesReader() throws IOException {
+        Reader reader = new StringReader(JodaBeanSer.COMPACT.xmlWriter().write(new Person()));
+        try (Stream<Address> stream = JodaBeanSer.COMPACT.xmlReader()
+                .readElements(reader, Person.class, "addressList", Address.class)) {
+            assertEquals(stream.count(), 0);
+        }
+        reader.read();
+    }
+
+    @Test
+    public void test_readElements_propertyNotPresent() {
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(new Person());
+        try (Stream<Address> stream = JodaBeanSer.COMPACT.xmlReader()
+                .readElements(new StringReader(xml), Person.class, "unknown", Address.class)) {
+            assertEquals(stream.count(), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_readElements_notCollection() {
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(SerTestHelper.testCollections());
+        JodaBeanSer.COMPACT.xmlReader().readElements(new StringReader(xml), ImmGuava.class, "map", String.class);
+    }
+
+    //-----------------------------------------------------------------------
     @Test
     public void test_writeImmAddress() {
         ImmAddress address = SerTestHelper.testImmAddress();
@@ -84,6 +215,37 @@ public class TestSerializeXml {
         BeanAssert.assertBeanEquals(bean, address);
     }
 
+    @Test
+    public void test_write_escaping() {
+        Person person = new Person();
+        person.setForename("Plain");
+        person.setSurname("a & b <c> \"d\" 'e'\tf\u00e9");
+        person.getOtherAddressMap().put("k & <\"'\t\n\r", new Address());
+        String xml = JodaBeanSer.COMPACT.xmlWriter().write(person);
+        assertTrue(xml.contains("<forename>Plain</forename>"));
+        assertTrue(xml.contains("<surname>a &amp; b &lt;c&gt; \"d\" 'e'\tf\u00e9</surname>"));
+        assertTrue(xml.contains("<entry key=\"k &amp; &lt;&quot;&apos;&#09;&#x0A;&#x0D;\""));
+        Person bean = JodaBeanSer.COMPACT.xmlReader().read(xml, Person.class);
+        assertEquals(bean.getSurname(), person.getSurname());
+        assertEquals(bean.getOtherAddressMap().keySet(), person.getOtherAddressMap().keySet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_write_invalidCharacter() {
+        Person person = new Person();
+        person.setSurname("a\u0001b");
+        JodaBeanSer.COMPACT.xmlWriter().write(person);
+    }
+
+    @Test
+    public void test_readCData() {
+        Address address = SerTestHelper.testAddress();
+        String xml = JodaBeanSer.PRETTY.xmlWriter().write(address);
+        xml = xml.replace("Big Road", "Big<![CDATA[ R]]>oad<?pi data?>");
+        Address bean = JodaBeanSer.PRETTY.xmlReader().read(xml, Address.class);
+        BeanAssert.assertBeanEquals(bean, address);
+    }
+
     @Test
     public void test_writeImmOptional() {
         ImmOptional optional = SerTestHelper.testImmOptional();